@@ -1,9 +1,14 @@
 package com.ai.based.fitness.activityservice;
 
+import com.ai.based.fitness.common.threads.VirtualThreadPinningMonitor;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Import;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@Import(VirtualThreadPinningMonitor.class)
+@EnableScheduling
 public class ActivityServiceApplication {
 
   public static void main(String[] args) {
@@ -0,0 +1,228 @@
+package com.ai.based.fitness.activityservice.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes without waiting for the broker on every message. Messages are buffered and sent
+ * together on one cached channel once {@code flush-size} of them are queued or {@code flush-window}
+ * has passed since the first one; confirms come back asynchronously and complete the future
+ * returned by {@link #publish}.
+ * <p>
+ * Needs {@code publisher-confirm-type: correlated}, and {@code publisher-returns} with a mandatory
+ * template for unroutable messages to fail instead of silently disappearing. At most
+ * {@code max-in-flight} messages are buffered or unconfirmed at a time, callers wait for room
+ * beyond that.
+ */
+@Component
+@Slf4j
+public class BatchingRabbitPublisher implements DisposableBean {
+
+  private final RabbitTemplate rabbitTemplate;
+  private final int flushSize;
+  private final Duration flushWindow;
+  private final Duration acquireTimeout;
+  private final int maxInFlight;
+  private final Semaphore inFlightPermits;
+
+  private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(
+          Thread.ofPlatform().name("rabbit-publisher-flush").daemon().factory());
+  private final Object lock = new Object();
+  private List<PendingMessage> buffer = new ArrayList<>();
+  private ScheduledFuture<?> scheduledFlush;
+
+  private final AtomicInteger buffered = new AtomicInteger();
+  private final AtomicInteger unconfirmed = new AtomicInteger();
+  private final Counter confirmed;
+  private final Counter nacked;
+  private final Counter returned;
+  private final Timer confirmLatency;
+
+  public BatchingRabbitPublisher(RabbitTemplate rabbitTemplate, MeterRegistry meterRegistry,
+          @Value("${rabbitmq.publisher.flush-size:100}") int flushSize,
+          @Value("${rabbitmq.publisher.flush-window:5ms}") Duration flushWindow,
+          @Value("${rabbitmq.publisher.max-in-flight:5000}") int maxInFlight,
+          @Value("${rabbitmq.publisher.acquire-timeout:5s}") Duration acquireTimeout) {
+    this.rabbitTemplate = rabbitTemplate;
+    this.flushSize = flushSize;
+    this.flushWindow = flushWindow;
+    this.maxInFlight = maxInFlight;
+    this.acquireTimeout = acquireTimeout;
+    this.inFlightPermits = new Semaphore(maxInFlight);
+
+    Gauge.builder("rabbitmq.publisher.in-flight", this, BatchingRabbitPublisher::inFlight)
+            .description("Messages accepted by publish() and not confirmed yet")
+            .register(meterRegistry);
+    Gauge.builder("rabbitmq.publisher.unconfirmed", unconfirmed, AtomicInteger::get)
+            .description("Messages sent to the broker and waiting for their confirm")
+            .register(meterRegistry);
+    Gauge.builder("rabbitmq.publisher.buffered", buffered, AtomicInteger::get)
+            .register(meterRegistry);
+    this.confirmed = meterRegistry.counter("rabbitmq.publisher.confirms", "result", "ack");
+    this.nacked = meterRegistry.counter("rabbitmq.publisher.confirms", "result", "nack");
+    this.returned = meterRegistry.counter("rabbitmq.publisher.confirms", "result", "returned");
+    this.confirmLatency = Timer.builder("rabbitmq.publisher.confirm.latency")
+            .register(meterRegistry);
+  }
+
+  /**
+   * Queues the message for the next flush. The future completes when the broker confirmed it, and
+   * fails when the broker nacked or returned it, or it couldn't be sent at all.
+   */
+  public CompletableFuture<Void> publish(String exchange, String routingKey, Object message) {
+    try {
+      if (!inFlightPermits.tryAcquire(acquireTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+        return CompletableFuture.failedFuture(new AmqpException(
+                "Publisher saturated, " + maxInFlight + " messages in flight"));
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return CompletableFuture.failedFuture(e);
+    }
+
+    PendingMessage pending = new PendingMessage(exchange, routingKey, message);
+    List<PendingMessage> full = null;
+    synchronized (lock) {
+      buffer.add(pending);
+      if (buffer.size() >= flushSize) {
+        full = drain();
+      } else if (scheduledFlush == null) {
+        scheduledFlush = flusher.schedule(this::flush, flushWindow.toNanos(), TimeUnit.NANOSECONDS);
+      }
+    }
+    buffered.incrementAndGet();
+//    a full buffer is sent by the caller that filled it, that keeps producers from outrunning us
+    if (full != null) {
+      send(full);
+    }
+    return pending.result;
+  }
+
+  //  sends whatever is buffered now instead of waiting for the window
+  public void flush() {
+    List<PendingMessage> batch;
+    synchronized (lock) {
+      batch = drain();
+    }
+    if (!batch.isEmpty()) {
+      send(batch);
+    }
+  }
+
+  public int inFlight() {
+    return maxInFlight - inFlightPermits.availablePermits();
+  }
+
+  public int unconfirmed() {
+    return unconfirmed.get();
+  }
+
+  private List<PendingMessage> drain() {
+    if (scheduledFlush != null) {
+      scheduledFlush.cancel(false);
+      scheduledFlush = null;
+    }
+    List<PendingMessage> batch = buffer;
+    buffer = new ArrayList<>(flushSize);
+    return batch;
+  }
+
+  private void send(List<PendingMessage> batch) {
+    buffered.addAndGet(-batch.size());
+    try {
+//      one channel for the whole batch instead of a checkout per message
+      rabbitTemplate.invoke(operations -> {
+        for (PendingMessage pending : batch) {
+          CorrelationData correlation = new CorrelationData();
+          operations.convertAndSend(pending.exchange, pending.routingKey, pending.message,
+                  correlation);
+          track(pending, correlation);
+        }
+        return null;
+      });
+    } catch (Exception e) {
+      log.warn("Sending a batch of {} messages failed: {}", batch.size(), e.getMessage());
+//      the one that threw and everything after it never reached the broker
+      for (PendingMessage pending : batch) {
+        if (!pending.sent) {
+          complete(pending, e);
+        }
+      }
+    }
+  }
+
+  //  called right after the send, a confirm that already arrived completes the future right away
+  private void track(PendingMessage pending, CorrelationData correlation) {
+    pending.sent = true;
+    unconfirmed.incrementAndGet();
+    long sentAt = System.nanoTime();
+    correlation.getFuture().whenComplete((confirm, error) -> {
+      unconfirmed.decrementAndGet();
+      confirmLatency.record(System.nanoTime() - sentAt, TimeUnit.NANOSECONDS);
+      if (error != null) {
+        nacked.increment();
+        complete(pending, error);
+      } else if (!confirm.isAck()) {
+        nacked.increment();
+        complete(pending, new AmqpException("Broker nacked message: " + confirm.getReason()));
+      } else if (correlation.getReturned() != null) {
+//        returns arrive before the confirm, an ack alone doesn't mean it was routed
+        returned.increment();
+        complete(pending, new AmqpException("Message returned as unroutable: "
+                + correlation.getReturned().getReplyText()));
+      } else {
+        confirmed.increment();
+        complete(pending, null);
+      }
+    });
+  }
+
+  private void complete(PendingMessage pending, Throwable error) {
+    inFlightPermits.release();
+    if (error == null) {
+      pending.result.complete(null);
+    } else {
+      pending.result.completeExceptionally(error);
+    }
+  }
+
+  @Override
+  public void destroy() {
+    flush();
+    flusher.shutdown();
+  }
+
+  private static final class PendingMessage {
+
+    private final String exchange;
+    private final String routingKey;
+    private final Object message;
+    private final CompletableFuture<Void> result = new CompletableFuture<>();
+    private volatile boolean sent;
+
+    private PendingMessage(String exchange, String routingKey, Object message) {
+      this.exchange = exchange;
+      this.routingKey = routingKey;
+      this.message = message;
+    }
+  }
+}
@@ -1,9 +1,13 @@
 package com.ai.based.fitness.activityservice.config;
 
+import com.ai.based.fitness.common.amqp.SmileMessageConverter;
+import org.springframework.amqp.core.AnonymousQueue;
 import org.springframework.amqp.core.Binding;
 import org.springframework.amqp.core.BindingBuilder;
 import org.springframework.amqp.core.DirectExchange;
+import org.springframework.amqp.core.MessageProperties;
 import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.support.converter.ContentTypeDelegatingMessageConverter;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.amqp.support.converter.MessageConverter;
 import org.springframework.beans.factory.annotation.Value;
@@ -22,6 +26,9 @@ public class RabbitMqConfig {
   @Value("${rabbitmq.routing.key}")
   private String routingKey;
 
+  @Value("${rabbitmq.user-registered.routing-key}")
+  private String userRegisteredRoutingKey;
+
   @Bean
   public Queue activityQueue() {
 //    even when rabbitmq restarts, as durable is true, messages will not be lost :)
@@ -39,8 +46,29 @@ public class RabbitMqConfig {
   }
 
   @Bean
-  public MessageConverter jsonMessageConverter() {
-//    converts java object to json while sending to queue :) else we will have to manually serialize or deserialize
-    return new Jackson2JsonMessageConverter();
+  public Queue userRegisteredQueue() {
+//    every instance needs every event, so each one gets its own auto-deleted queue
+    return new AnonymousQueue();
+  }
+
+  @Bean
+  public Binding userRegisteredBinding(Queue userRegisteredQueue,
+          DirectExchange activityExchange) {
+    return BindingBuilder.bind(userRegisteredQueue).to(activityExchange)
+            .with(userRegisteredRoutingKey);
+  }
+
+  @Bean
+  public MessageConverter messageConverter(
+          @Value("${rabbitmq.message-format:smile}") String messageFormat) {
+//    incoming messages are decoded by their content type, so json and smile producers can be mixed;
+//    outgoing ones use message-format, json for consumers that don't understand smile yet
+    Jackson2JsonMessageConverter json = new Jackson2JsonMessageConverter();
+    SmileMessageConverter smile = new SmileMessageConverter();
+    ContentTypeDelegatingMessageConverter converter = new ContentTypeDelegatingMessageConverter(
+            "json".equalsIgnoreCase(messageFormat) ? json : smile);
+    converter.addDelegate(MessageProperties.CONTENT_TYPE_JSON, json);
+    converter.addDelegate(SmileMessageConverter.CONTENT_TYPE, smile);
+    return converter;
   }
 }
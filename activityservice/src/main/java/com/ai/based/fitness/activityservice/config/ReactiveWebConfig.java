@@ -0,0 +1,29 @@
+package com.ai.based.fitness.activityservice.config;
+
+import com.ai.based.fitness.activityservice.controller.ActivityHandler;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+/**
+ * Routes of the {@code reactive} profile, which runs the service on WebFlux and Netty instead of
+ * Spring MVC and Tomcat (see activity-service-reactive.yml). Only tracking, listing and fetching
+ * activities are served then, the MVC controllers are not registered.
+ */
+@Configuration
+@Profile("reactive")
+public class ReactiveWebConfig {
+
+  @Bean
+  public RouterFunction<ServerResponse> activityRoutes(ActivityHandler handler) {
+    return RouterFunctions.route()
+            .path("/api/activities", builder -> builder
+                    .POST("", handler::trackActivity)
+                    .GET("", handler::getUserActivities)
+                    .GET("/{activityId}", handler::getActivity))
+            .build();
+  }
+}
@@ -0,0 +1,25 @@
+package com.ai.based.fitness.activityservice.config;
+
+import com.ai.based.fitness.activityservice.service.ActivityRollupService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Regenerates all activity rollups from the raw activities at startup, e.g. after changing how
+ * they are computed. Run once with {@code --activity.rollups.rebuild=true}.
+ */
+@Component
+@ConditionalOnProperty(name = "activity.rollups.rebuild", havingValue = "true")
+@RequiredArgsConstructor
+public class RollupRebuildRunner implements ApplicationRunner {
+
+  private final ActivityRollupService rollupService;
+
+  @Override
+  public void run(ApplicationArguments args) {
+    rollupService.rebuildAll();
+  }
+}
@@ -0,0 +1,75 @@
+package com.ai.based.fitness.activityservice.config;
+
+import com.ai.based.fitness.activityservice.model.Activity;
+import com.ai.based.fitness.activityservice.model.ActivityMetrics;
+import java.util.stream.Stream;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+/**
+ * Moves the well-known entries of the free-form metrics map of activities stored before
+ * ActivityMetrics existed into the typed fields. Only touches documents without typed metrics, so
+ * it can be stopped and run again. Run once with {@code --activity.migrations.typed-metrics=true}.
+ */
+@Component
+@ConditionalOnProperty(name = "activity.migrations.typed-metrics", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class TypedMetricsMigrationRunner implements ApplicationRunner {
+
+  private final MongoTemplate mongoTemplate;
+
+  @Value("${activity.migrations.batch-size:500}")
+  private int batchSize;
+
+  @Override
+  public void run(ApplicationArguments args) {
+    Query legacy = new Query(Criteria.where("metrics").exists(false)
+            .and("additionalMetric").exists(true))
+            .cursorBatchSize(batchSize);
+    legacy.fields().include("_id").include("additionalMetric");
+
+    long scanned = 0;
+    long migrated = 0;
+    BulkOperations bulk = mongoTemplate.bulkOps(BulkMode.UNORDERED, Activity.class);
+    int pending = 0;
+    try (Stream<Activity> activities = mongoTemplate.stream(legacy, Activity.class)) {
+      for (Activity activity : (Iterable<Activity>) activities::iterator) {
+        scanned++;
+        ActivityMetrics.Split split = ActivityMetrics.split(activity.getAdditionalMetric());
+        if (split.metrics() == null) {
+          continue;
+        }
+        Update update = new Update().set("metrics", split.metrics());
+        if (split.extras() != null) {
+          update.set("additionalMetric", split.extras());
+        } else {
+          update.unset("additionalMetric");
+        }
+        bulk.updateOne(new Query(Criteria.where("_id").is(activity.getId())), update);
+        migrated++;
+        if (++pending == batchSize) {
+          bulk.execute();
+          bulk = mongoTemplate.bulkOps(BulkMode.UNORDERED, Activity.class);
+          pending = 0;
+        }
+      }
+    }
+    if (pending > 0) {
+      bulk.execute();
+    }
+    log.info("Typed metrics migration: {} legacy activities scanned, {} migrated", scanned,
+            migrated);
+  }
+}
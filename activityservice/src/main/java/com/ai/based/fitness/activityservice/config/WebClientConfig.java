@@ -1,11 +1,17 @@
 package com.ai.based.fitness.activityservice.config;
 
+import com.ai.based.fitness.common.http.DownstreamHttpClientProperties;
+import com.ai.based.fitness.common.http.DownstreamHttpClients;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cloud.client.loadbalancer.LoadBalanced;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
 import org.springframework.web.reactive.function.client.WebClient;
 
 @Configuration
+@EnableConfigurationProperties(DownstreamHttpClientProperties.class)
+@Import(DownstreamHttpClients.class)
 public class WebClientConfig {
 
   @Bean
@@ -15,9 +21,12 @@ public class WebClientConfig {
     return WebClient.builder();
   }
 
+  // clone() keeps the load balancer filter of the shared builder
   @Bean
-  public WebClient userServiceWebClient(WebClient.Builder webClientBuilder) {
-    return webClientBuilder
+  public WebClient userServiceWebClient(WebClient.Builder webClientBuilder,
+          DownstreamHttpClients downstreamHttpClients) {
+    return webClientBuilder.clone()
+            .clientConnector(downstreamHttpClients.connector("USER-SERVICE"))
             .baseUrl("http://USER-SERVICE")
             .build();
   }
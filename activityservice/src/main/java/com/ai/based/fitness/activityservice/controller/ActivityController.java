@@ -1,10 +1,31 @@
 package com.ai.based.fitness.activityservice.controller;
 
+import com.ai.based.fitness.activityservice.dto.ActivityFilter;
+import com.ai.based.fitness.activityservice.dto.ActivityPage;
 import com.ai.based.fitness.activityservice.dto.ActivityRequest;
 import com.ai.based.fitness.activityservice.dto.ActivityResponse;
+import com.ai.based.fitness.activityservice.dto.ActivityRollupResponse;
+import com.ai.based.fitness.activityservice.dto.ActivityTypeSummary;
+import com.ai.based.fitness.activityservice.dto.BatchActivityResult;
+import com.ai.based.fitness.activityservice.dto.LeaderboardResponse;
+import com.ai.based.fitness.activityservice.model.ActivityType;
+import com.ai.based.fitness.activityservice.model.LeaderboardMetric;
+import com.ai.based.fitness.activityservice.model.RollupPeriod;
+import com.ai.based.fitness.activityservice.service.ActivityRollupService;
 import com.ai.based.fitness.activityservice.service.ActivityService;
+import com.ai.based.fitness.activityservice.service.IdempotencyService;
+import com.ai.based.fitness.activityservice.service.WeeklyLeaderboard;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.zip.GZIPOutputStream;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.annotation.DateTimeFormat.ISO;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -12,28 +33,140 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
+@Profile("!reactive")
 @RequestMapping("/api/activities")
 @RequiredArgsConstructor
 public class ActivityController {
 
+  public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+  public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
   private final ActivityService activityService;
+  private final ActivityRollupService rollupService;
+  private final WeeklyLeaderboard leaderboard;
+  private final IdempotencyService idempotencyService;
 
+  //  clients retrying on timeouts send the same Idempotency-Key and get the first response back
   @PostMapping
   public ResponseEntity<ActivityResponse> trackActivity(@RequestBody ActivityRequest request,
-          @RequestHeader("X-User-ID") String userId) {
+          @RequestHeader("X-User-ID") String userId,
+          @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
     if (userId != null) {
       request.setUserId(userId);
     }
-    return ResponseEntity.ok(activityService.trackActivity(request));
+    if (idempotencyKey == null) {
+      return ResponseEntity.ok(activityService.trackActivity(request));
+    }
+    return ResponseEntity.ok(idempotencyService.execute(request.getUserId(), idempotencyKey,
+            request, () -> activityService.trackActivity(request)));
   }
 
+  @PostMapping("/batch")
+  public ResponseEntity<List<BatchActivityResult>> trackActivities(
+          @RequestBody List<ActivityRequest> requests,
+          @RequestHeader("X-User-ID") String userId) {
+    return ResponseEntity.ok(activityService.trackActivities(userId, requests));
+  }
+
+  //  newest first, pass the X-Next-Cursor header of a page as cursor to get the following one.
+  //  from/to/type and the distance and heart rate bounds narrow the list, includeMetrics=false
+  //  leaves out the free-form metrics map
   @GetMapping
   public ResponseEntity<List<ActivityResponse>> getUserActivities(
-          @RequestHeader("X-User-ID") String userId) {
-    return ResponseEntity.ok(activityService.getUserActivities(userId));
+          @RequestHeader("X-User-ID") String userId,
+          @RequestParam(defaultValue = "50") int limit,
+          @RequestParam(required = false) String cursor,
+          @RequestParam(required = false) @DateTimeFormat(iso = ISO.DATE_TIME) LocalDateTime from,
+          @RequestParam(required = false) @DateTimeFormat(iso = ISO.DATE_TIME) LocalDateTime to,
+          @RequestParam(required = false) ActivityType type,
+          @RequestParam(required = false) Double minDistance,
+          @RequestParam(required = false) Double maxDistance,
+          @RequestParam(required = false) Integer minAvgHeartRate,
+          @RequestParam(required = false) Integer maxAvgHeartRate,
+          @RequestParam(defaultValue = "true") boolean includeMetrics) {
+    ActivityFilter filter = ActivityFilter.builder()
+            .userId(userId)
+            .from(from)
+            .to(to)
+            .type(type)
+            .minDistance(minDistance)
+            .maxDistance(maxDistance)
+            .minAvgHeartRate(minAvgHeartRate)
+            .maxAvgHeartRate(maxAvgHeartRate)
+            .includeMetrics(includeMetrics)
+            .build();
+    ActivityPage page = activityService.getUserActivities(filter, limit, cursor);
+    ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+    if (page.getNextCursor() != null) {
+      response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+    }
+    return response.body(page.getActivities());
+  }
+
+  //  per type count, duration and calories, e.g. for a month: ?from=2025-06-01T00:00:00&to=2025-07-01T00:00:00
+  @GetMapping("/summary")
+  public ResponseEntity<List<ActivityTypeSummary>> getActivitySummary(
+          @RequestHeader("X-User-ID") String userId,
+          @RequestParam(required = false) @DateTimeFormat(iso = ISO.DATE_TIME) LocalDateTime from,
+          @RequestParam(required = false) @DateTimeFormat(iso = ISO.DATE_TIME) LocalDateTime to,
+          @RequestParam(required = false) ActivityType type) {
+    ActivityFilter filter = ActivityFilter.builder()
+            .userId(userId)
+            .from(from)
+            .to(to)
+            .type(type)
+            .build();
+    return ResponseEntity.ok(activityService.getActivitySummary(filter));
+  }
+
+  //  pre-aggregated totals per day or week and type, from is rounded down to its period's start
+  @GetMapping("/stats")
+  public ResponseEntity<List<ActivityRollupResponse>> getActivityStats(
+          @RequestHeader("X-User-ID") String userId,
+          @RequestParam(defaultValue = "WEEK") RollupPeriod period,
+          @RequestParam(required = false) @DateTimeFormat(iso = ISO.DATE) LocalDate from,
+          @RequestParam(required = false) @DateTimeFormat(iso = ISO.DATE) LocalDate to) {
+    return ResponseEntity.ok(rollupService.getRollups(userId, period, from, to));
+  }
+
+  //  this week's top users, across all types unless type is given
+  @GetMapping("/leaderboard")
+  public ResponseEntity<LeaderboardResponse> getLeaderboard(
+          @RequestParam(defaultValue = "CALORIES") LeaderboardMetric metric,
+          @RequestParam(required = false) ActivityType type,
+          @RequestParam(defaultValue = "10") int limit) {
+    return ResponseEntity.ok(leaderboard.top(metric, type, Math.max(1, Math.min(limit, 100))));
+  }
+
+  //  full history as newline-delimited JSON, gzipped when the client accepts it
+  @GetMapping("/export")
+  public ResponseEntity<StreamingResponseBody> exportActivities(
+          @RequestHeader("X-User-ID") String userId,
+          @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+    boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+    StreamingResponseBody body = out -> {
+      if (gzip) {
+        try (GZIPOutputStream gzipOut = new GZIPOutputStream(out, 8192)) {
+          activityService.exportUserActivities(userId, gzipOut);
+        }
+      } else {
+        activityService.exportUserActivities(userId, out);
+      }
+    };
+
+    ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_NDJSON)
+            .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                    .filename("activities.ndjson").build().toString());
+    if (gzip) {
+      response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+    }
+    return response.body(body);
   }
 
   @GetMapping("/{activityId}")
@@ -0,0 +1,108 @@
+package com.ai.based.fitness.activityservice.controller;
+
+import static com.ai.based.fitness.activityservice.controller.ActivityController.IDEMPOTENCY_KEY_HEADER;
+import static com.ai.based.fitness.activityservice.controller.ActivityController.NEXT_CURSOR_HEADER;
+
+import com.ai.based.fitness.activityservice.dto.ActivityFilter;
+import com.ai.based.fitness.activityservice.dto.ActivityRequest;
+import com.ai.based.fitness.activityservice.model.ActivityType;
+import com.ai.based.fitness.activityservice.service.IdempotencyService;
+import com.ai.based.fitness.activityservice.service.ReactiveActivityService;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.function.Function;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * WebFlux handlers for tracking, listing and fetching activities with the {@code reactive}
+ * profile, routed in ReactiveWebConfig. Same parameters and headers as ActivityController.
+ */
+@Component
+@Profile("reactive")
+@RequiredArgsConstructor
+public class ActivityHandler {
+
+  private final ReactiveActivityService activityService;
+  private final IdempotencyService idempotencyService;
+
+  public Mono<ServerResponse> trackActivity(ServerRequest request) {
+    String userId = request.headers().firstHeader("X-User-ID");
+    String idempotencyKey = request.headers().firstHeader(IDEMPOTENCY_KEY_HEADER);
+    return request.bodyToMono(ActivityRequest.class)
+            .flatMap(activityRequest -> {
+              if (userId != null) {
+                activityRequest.setUserId(userId);
+              }
+              if (idempotencyKey == null) {
+                return activityService.trackActivity(activityRequest);
+              }
+//              the idempotency records are kept with the blocking template
+              return Mono.fromCallable(() -> idempotencyService.execute(
+                              activityRequest.getUserId(), idempotencyKey, activityRequest,
+                              () -> activityService.trackActivity(activityRequest).block()))
+                      .subscribeOn(Schedulers.boundedElastic());
+            })
+            .flatMap(response -> ServerResponse.ok().bodyValue(response));
+  }
+
+  //  unparseable parameters are a 400 like on the MVC controller, so is a malformed cursor
+  public Mono<ServerResponse> getUserActivities(ServerRequest request) {
+    ActivityFilter filter;
+    int limit;
+    try {
+      filter = ActivityFilter.builder()
+              .userId(request.headers().firstHeader("X-User-ID"))
+              .from(param(request, "from", LocalDateTime::parse))
+              .to(param(request, "to", LocalDateTime::parse))
+              .type(param(request, "type", ActivityType::valueOf))
+              .minDistance(param(request, "minDistance", Double::valueOf))
+              .maxDistance(param(request, "maxDistance", Double::valueOf))
+              .minAvgHeartRate(param(request, "minAvgHeartRate", Integer::valueOf))
+              .maxAvgHeartRate(param(request, "maxAvgHeartRate", Integer::valueOf))
+              .includeMetrics(
+                      !"false".equals(request.queryParam("includeMetrics").orElse("true")))
+              .build();
+      limit = Optional.ofNullable(param(request, "limit", Integer::valueOf)).orElse(50);
+    } catch (IllegalArgumentException e) {
+      return ServerResponse.badRequest().bodyValue(e.getMessage());
+    }
+
+    return Mono.defer(() -> activityService.getUserActivities(filter, limit,
+                    request.queryParam("cursor").orElse(null)))
+            .flatMap(page -> {
+              ServerResponse.BodyBuilder response = ServerResponse.ok();
+              if (page.getNextCursor() != null) {
+                response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+              }
+              return response.bodyValue(page.getActivities());
+            })
+            .onErrorResume(ResponseStatusException.class, e -> ServerResponse
+                    .status(e.getStatusCode())
+                    .bodyValue(e.getReason() != null ? e.getReason() : ""));
+  }
+
+  public Mono<ServerResponse> getActivity(ServerRequest request) {
+    return activityService.getActivityById(request.pathVariable("activityId"))
+            .flatMap(response -> ServerResponse.ok().bodyValue(response));
+  }
+
+  private static <T> T param(ServerRequest request, String name, Function<String, T> parser) {
+    String value = request.queryParam(name).filter(v -> !v.isBlank()).orElse(null);
+    if (value == null) {
+      return null;
+    }
+    try {
+      return parser.apply(value);
+    } catch (RuntimeException e) {
+//      NumberFormatException, an unknown enum constant or a DateTimeParseException
+      throw new IllegalArgumentException("Invalid value for " + name + ": " + value, e);
+    }
+  }
+}
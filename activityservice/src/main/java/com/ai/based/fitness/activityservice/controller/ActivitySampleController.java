@@ -0,0 +1,54 @@
+package com.ai.based.fitness.activityservice.controller;
+
+import com.ai.based.fitness.activityservice.dto.SamplePoint;
+import com.ai.based.fitness.activityservice.dto.SampleRequest;
+import com.ai.based.fitness.activityservice.model.DownsampleMode;
+import com.ai.based.fitness.activityservice.model.SampleField;
+import com.ai.based.fitness.activityservice.service.ActivitySampleService;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.annotation.DateTimeFormat.ISO;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@Profile("!reactive")
+@RequestMapping("/api/activities/{activityId}/samples")
+@RequiredArgsConstructor
+public class ActivitySampleController {
+
+  private final ActivitySampleService sampleService;
+
+  //  one chunk of a recording, post long recordings in several requests
+  @PostMapping
+  public ResponseEntity<Map<String, Integer>> addSamples(@PathVariable String activityId,
+          @RequestBody List<SampleRequest> samples,
+          @RequestHeader("X-User-ID") String userId) {
+    int stored = sampleService.addSamples(userId, activityId, samples);
+    return ResponseEntity.ok(Map.of("stored", stored));
+  }
+
+  //  one field downsampled to at most points values, e.g. ?field=HEART_RATE&points=300
+  @GetMapping
+  public ResponseEntity<List<SamplePoint>> getSamples(@PathVariable String activityId,
+          @RequestHeader("X-User-ID") String userId,
+          @RequestParam SampleField field,
+          @RequestParam(defaultValue = "LTTB") DownsampleMode mode,
+          @RequestParam(defaultValue = "500") int points,
+          @RequestParam(required = false) @DateTimeFormat(iso = ISO.DATE_TIME) Instant from,
+          @RequestParam(required = false) @DateTimeFormat(iso = ISO.DATE_TIME) Instant to) {
+    return ResponseEntity.ok(
+            sampleService.getSamples(userId, activityId, field, mode, points, from, to));
+  }
+}
@@ -0,0 +1,39 @@
+package com.ai.based.fitness.activityservice.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import org.bson.types.ObjectId;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Position in a user's activity list, ordered by {@code startTime desc, id desc}. Sent to clients
+ * as an opaque url-safe string, {@code startTime} is null for activities logged without one.
+ * A cursor that doesn't decode to a timestamp and an ObjectId is answered with 400.
+ */
+public record ActivityCursor(LocalDateTime startTime, String id) {
+
+  private static final char SEPARATOR = '|';
+
+  public String encode() {
+    String raw = (startTime != null ? startTime.toString() : "") + SEPARATOR + id;
+    return Base64.getUrlEncoder().withoutPadding()
+            .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  public static ActivityCursor decode(String cursor) {
+    try {
+      String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+      int separator = raw.lastIndexOf(SEPARATOR);
+      String startTime = raw.substring(0, separator);
+      String id = raw.substring(separator + 1);
+      if (!ObjectId.isValid(id)) {
+        throw new IllegalArgumentException("not an ObjectId: " + id);
+      }
+      return new ActivityCursor(startTime.isEmpty() ? null : LocalDateTime.parse(startTime), id);
+    } catch (RuntimeException e) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor: " + cursor, e);
+    }
+  }
+}
@@ -0,0 +1,48 @@
+package com.ai.based.fitness.activityservice.dto;
+
+import com.ai.based.fitness.activityservice.model.Activity;
+import com.ai.based.fitness.activityservice.model.ActivityMetrics;
+import com.ai.based.fitness.activityservice.model.ActivityType;
+import java.time.LocalDateTime;
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * What goes on the activity queue, instead of the whole Activity document. Bump
+ * {@link #CURRENT_VERSION} on incompatible changes; consumers ignore fields they don't know, so
+ * adding fields doesn't need a bump.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ActivityEvent {
+
+  public static final int CURRENT_VERSION = 1;
+
+  private int version;
+  private String id;
+  private String userId;
+  private ActivityType type;
+  private Integer duration;
+  private Integer caloriesBurned;
+  private LocalDateTime startTime;
+  //  the AI prompt uses them, so they stay; audit timestamps don't travel
+  private Map<String, Object> metrics;
+
+  public static ActivityEvent from(Activity activity) {
+    return ActivityEvent.builder()
+            .version(CURRENT_VERSION)
+            .id(activity.getId())
+            .userId(activity.getUserId())
+            .type(activity.getType())
+            .duration(activity.getDuration())
+            .caloriesBurned(activity.getCaloriesBurned())
+            .startTime(activity.getStartTime())
+            .metrics(ActivityMetrics.merge(activity.getMetrics(), activity.getAdditionalMetric()))
+            .build();
+  }
+}
@@ -0,0 +1,32 @@
+package com.ai.based.fitness.activityservice.dto;
+
+import com.ai.based.fitness.activityservice.model.ActivityType;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Which of a user's activities to return. {@code from} is inclusive, {@code to} exclusive, the
+ * metric bounds are inclusive; null fields don't filter.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ActivityFilter {
+
+  private String userId;
+  private LocalDateTime from;
+  private LocalDateTime to;
+  private ActivityType type;
+  private Double minDistance;
+  private Double maxDistance;
+  private Integer minAvgHeartRate;
+  private Integer maxAvgHeartRate;
+
+  //  the metrics map is the bulk of most documents, list views usually don't need it
+  @Builder.Default
+  private boolean includeMetrics = true;
+}
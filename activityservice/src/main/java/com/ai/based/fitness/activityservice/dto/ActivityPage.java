@@ -0,0 +1,17 @@
+package com.ai.based.fitness.activityservice.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ActivityPage {
+
+  private List<ActivityResponse> activities;
+
+  //  null on the last page
+  private String nextCursor;
+}
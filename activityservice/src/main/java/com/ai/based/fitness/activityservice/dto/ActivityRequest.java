@@ -1,5 +1,6 @@
 package com.ai.based.fitness.activityservice.dto;
 
+import com.ai.based.fitness.activityservice.model.ActivityMetrics;
 import com.ai.based.fitness.activityservice.model.ActivityType;
 import java.time.LocalDateTime;
 import java.util.Map;
@@ -13,6 +14,8 @@ public class ActivityRequest {
   private Integer duration;
   private Integer caloriesBurned;
   private LocalDateTime startTime;
+  //  well-known entries of additionalMetrics are stored as typed metrics as well
+  private ActivityMetrics metrics;
   private Map<String, Object> additionalMetrics;
 
 }
@@ -1,5 +1,6 @@
 package com.ai.based.fitness.activityservice.dto;
 
+import com.ai.based.fitness.activityservice.model.ActivityMetrics;
 import com.ai.based.fitness.activityservice.model.ActivityType;
 import java.time.LocalDateTime;
 import java.util.Map;
@@ -14,6 +15,8 @@ public class ActivityResponse {
   private Integer duration;
   private Integer caloriesBurned;
   private LocalDateTime startTime;
+  private ActivityMetrics metrics;
+  //  typed metrics and extras together, as before the typed ones existed
   private Map<String, Object> additionalMetric;
   private LocalDateTime createdAt;
   private LocalDateTime updatedAt;
@@ -0,0 +1,18 @@
+package com.ai.based.fitness.activityservice.dto;
+
+import com.ai.based.fitness.activityservice.model.ActivityType;
+import com.ai.based.fitness.activityservice.model.RollupPeriod;
+import java.time.LocalDate;
+import lombok.Data;
+
+@Data
+public class ActivityRollupResponse {
+
+  private RollupPeriod period;
+  private LocalDate periodStart;
+  private ActivityType type;
+  private long count;
+  private long totalDuration;
+  private long totalCalories;
+
+}
@@ -0,0 +1,17 @@
+package com.ai.based.fitness.activityservice.dto;
+
+import com.ai.based.fitness.activityservice.model.ActivityType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ActivityTypeSummary {
+
+  private ActivityType type;
+  private long count;
+  private long totalDuration;
+  private long totalCalories;
+}
@@ -0,0 +1,27 @@
+package com.ai.based.fitness.activityservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of one item of a batch upload, {@code index} is its position in the request list.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchActivityResult {
+
+  private int index;
+  private boolean success;
+  private ActivityResponse activity;
+  private String error;
+
+  public static BatchActivityResult success(int index, ActivityResponse activity) {
+    return new BatchActivityResult(index, true, activity, null);
+  }
+
+  public static BatchActivityResult failure(int index, String error) {
+    return new BatchActivityResult(index, false, null, error);
+  }
+}
@@ -0,0 +1,31 @@
+package com.ai.based.fitness.activityservice.dto;
+
+import com.ai.based.fitness.activityservice.model.ActivityType;
+import com.ai.based.fitness.activityservice.model.LeaderboardMetric;
+import java.time.LocalDate;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class LeaderboardResponse {
+
+  private LocalDate weekStart;
+  private LeaderboardMetric metric;
+  //  null for the board across all activity types
+  private ActivityType type;
+  private List<Entry> entries;
+
+  @Data
+  @AllArgsConstructor
+  @NoArgsConstructor
+  public static class Entry {
+
+    private int rank;
+    private String userId;
+    private long total;
+  }
+}
@@ -0,0 +1,16 @@
+package com.ai.based.fitness.activityservice.dto;
+
+import java.time.Instant;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SamplePoint {
+
+  private Instant timestamp;
+  private double value;
+
+}
@@ -0,0 +1,17 @@
+package com.ai.based.fitness.activityservice.dto;
+
+import java.time.Instant;
+import lombok.Data;
+
+@Data
+public class SampleRequest {
+
+  private Instant timestamp;
+  private Integer heartRate;
+  private Integer cadence;
+  private Double speed;
+  private Double altitude;
+  private Double latitude;
+  private Double longitude;
+
+}
@@ -0,0 +1,14 @@
+package com.ai.based.fitness.activityservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserRegisteredEvent {
+
+  private String keycloakId;
+
+}
@@ -1,5 +1,6 @@
 package com.ai.based.fitness.activityservice.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import java.time.LocalDateTime;
 import java.util.Map;
 import lombok.AllArgsConstructor;
@@ -9,10 +10,21 @@ import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
 
 @Document(collection = "activities")
+// back the paged and filtered activity queries, see ActivityRepositoryCustom
+@CompoundIndex(name = "user_start_time_id", def = "{'userId': 1, 'startTime': -1, '_id': -1}")
+@CompoundIndex(name = "user_type_start_time_id",
+        def = "{'userId': 1, 'type': 1, 'startTime': -1, '_id': -1}")
+// range queries on the typed metrics
+@CompoundIndex(name = "user_distance", def = "{'userId': 1, 'm.d': 1}")
+@CompoundIndex(name = "user_avg_heart_rate", def = "{'userId': 1, 'm.hr': 1}")
+// only activities with an unpublished event are indexed, so the relay's polling stays cheap
+@CompoundIndex(name = "outbox_pending", def = "{'outbox.nextAttemptAt': 1}",
+        partialFilter = "{'outbox.nextAttemptAt': {$exists: true}}")
 @Data
 @Builder
 @AllArgsConstructor
@@ -27,6 +39,10 @@ public class Activity {
   private Integer caloriesBurned;
   private LocalDateTime startTime;
 
+  @Field("m")
+  private ActivityMetrics metrics;
+
+  //  only what ActivityMetrics has no field for
   @Field("metrics")
   private Map<String, Object> additionalMetric;
 
@@ -36,4 +52,8 @@ public class Activity {
   //  Creation timestamp annotation is relation database specific so not used here.
   @LastModifiedDate
   private LocalDateTime updatedAt;
+
+  //  present until the event is published, never part of the event itself
+  @JsonIgnore
+  private OutboxEntry outbox;
 }
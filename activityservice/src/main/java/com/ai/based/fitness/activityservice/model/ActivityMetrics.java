@@ -0,0 +1,154 @@
+package com.ai.based.fitness.activityservice.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+/**
+ * The metrics most activities report, stored as numbers under short field names. Which ones are
+ * set depends on the activity type (sets and reps for weight training, distance and pace for
+ * running, ...); unset ones aren't stored at all. Anything else stays in
+ * {@code Activity.additionalMetric}.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ActivityMetrics {
+
+  //  km
+  @Field("d")
+  private Double distance;
+
+  @Field("hr")
+  private Integer avgHeartRate;
+
+  @Field("hrx")
+  private Integer maxHeartRate;
+
+  //  minutes per km
+  @Field("p")
+  private Double pace;
+
+  //  meters
+  @Field("el")
+  private Double elevationGain;
+
+  @Field("s")
+  private Integer sets;
+
+  @Field("r")
+  private Integer reps;
+
+  /**
+   * Moves the well-known entries of a free-form metrics map into typed fields. Anything that can't
+   * be stored without changing it stays in {@code extras} under its original key: values that
+   * aren't numbers, fractions for whole-number fields and keys spelled differently.
+   */
+  public static Split split(Map<String, Object> raw) {
+    ActivityMetrics metrics = new ActivityMetrics();
+    Map<String, Object> extras = new HashMap<>();
+    if (raw != null) {
+      raw.forEach((key, value) -> {
+        if (!metrics.set(key, value)) {
+          extras.put(key, value);
+        }
+      });
+    }
+    return new Split(metrics.isEmpty() ? null : metrics, extras.isEmpty() ? null : extras);
+  }
+
+  //  typed values first, then the extras, under the names clients send
+  public static Map<String, Object> merge(ActivityMetrics metrics, Map<String, Object> extras) {
+    Map<String, Object> merged = new LinkedHashMap<>();
+    if (metrics != null) {
+      putIfSet(merged, "distance", metrics.distance);
+      putIfSet(merged, "avgHeartRate", metrics.avgHeartRate);
+      putIfSet(merged, "maxHeartRate", metrics.maxHeartRate);
+      putIfSet(merged, "pace", metrics.pace);
+      putIfSet(merged, "elevationGain", metrics.elevationGain);
+      putIfSet(merged, "sets", metrics.sets);
+      putIfSet(merged, "reps", metrics.reps);
+    }
+    if (extras != null) {
+      extras.forEach(merged::putIfAbsent);
+    }
+    return merged;
+  }
+
+  //  fills the fields the other one doesn't have, other wins on conflicts
+  public ActivityMetrics mergedWith(ActivityMetrics other) {
+    if (other == null) {
+      return this;
+    }
+    return new ActivityMetrics(
+            other.distance != null ? other.distance : distance,
+            other.avgHeartRate != null ? other.avgHeartRate : avgHeartRate,
+            other.maxHeartRate != null ? other.maxHeartRate : maxHeartRate,
+            other.pace != null ? other.pace : pace,
+            other.elevationGain != null ? other.elevationGain : elevationGain,
+            other.sets != null ? other.sets : sets,
+            other.reps != null ? other.reps : reps);
+  }
+
+  @JsonIgnore
+  public boolean isEmpty() {
+    return distance == null && avgHeartRate == null && maxHeartRate == null && pace == null
+            && elevationGain == null && sets == null && reps == null;
+  }
+
+  //  only the exact key moves, other spellings stay extras so they come back as they were sent.
+  //  whole-number fields only take integers, 151.7 for avgHeartRate stays an extra too
+  private boolean set(String key, Object value) {
+    if (!(value instanceof Number number)) {
+      return false;
+    }
+    switch (key) {
+      case "distance" -> distance = number.doubleValue();
+      case "pace" -> pace = number.doubleValue();
+      case "elevationGain" -> elevationGain = number.doubleValue();
+      case "avgHeartRate", "maxHeartRate", "sets", "reps" -> {
+        Integer exact = exactInt(number);
+        if (exact == null) {
+          return false;
+        }
+        switch (key) {
+          case "avgHeartRate" -> avgHeartRate = exact;
+          case "maxHeartRate" -> maxHeartRate = exact;
+          case "sets" -> sets = exact;
+          default -> reps = exact;
+        }
+      }
+      default -> {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static Integer exactInt(Number number) {
+    if (number instanceof Integer || number instanceof Short || number instanceof Byte) {
+      return number.intValue();
+    }
+    if (number instanceof Long value && value == value.intValue()) {
+      return value.intValue();
+    }
+    return null;
+  }
+
+  private static void putIfSet(Map<String, Object> map, String key, Object value) {
+    if (value != null) {
+      map.put(key, value);
+    }
+  }
+
+  public record Split(ActivityMetrics metrics, Map<String, Object> extras) {
+
+  }
+}
@@ -0,0 +1,39 @@
+package com.ai.based.fitness.activityservice.model;
+
+import java.time.LocalDate;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Totals of one user's activities of one type in one day or week, kept up to date with $inc
+ * upserts as activities come in. The id is derived from the other keys so that every tracked
+ * activity hits exactly one document per period.
+ */
+@Document(collection = "activity_rollups")
+@CompoundIndex(name = "user_period_start", def = "{'userId': 1, 'period': 1, 'periodStart': 1}")
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ActivityRollup {
+
+  @Id
+  private String id;
+  private String userId;
+  private RollupPeriod period;
+  private LocalDate periodStart;
+  private ActivityType type;
+  private long count;
+  private long totalDuration;
+  private long totalCalories;
+
+  public static String id(String userId, RollupPeriod period, LocalDate periodStart,
+          ActivityType type) {
+    return userId + "|" + period + "|" + periodStart + "|" + type;
+  }
+}
@@ -0,0 +1,51 @@
+package com.ai.based.fitness.activityservice.model;
+
+import java.time.Instant;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.TimeSeries;
+import org.springframework.data.mongodb.core.timeseries.Granularity;
+
+/**
+ * One sensor reading during an activity. Samples live in a time-series collection with the
+ * activity id as meta field, so MongoDB buckets each activity's samples together and stores them
+ * column-compressed instead of as one document per second.
+ */
+@TimeSeries(collection = "activity_samples", timeField = "timestamp", metaField = "activityId",
+        granularity = Granularity.SECONDS)
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ActivitySample {
+
+  @Id
+  private String id;
+  private Instant timestamp;
+  private String activityId;
+
+  @Field("hr")
+  private Integer heartRate;
+
+  //  steps or revolutions per minute
+  @Field("cad")
+  private Integer cadence;
+
+  //  meters per second
+  @Field("spd")
+  private Double speed;
+
+  //  meters
+  @Field("alt")
+  private Double altitude;
+
+  @Field("lat")
+  private Double latitude;
+
+  @Field("lon")
+  private Double longitude;
+}
@@ -0,0 +1,8 @@
+package com.ai.based.fitness.activityservice.model;
+
+public enum DownsampleMode {
+  //  keeps actual samples, picked so that the shape (peaks, dips) is preserved
+  LTTB,
+  //  mean per fixed time interval, computed in MongoDB
+  AVERAGE
+}
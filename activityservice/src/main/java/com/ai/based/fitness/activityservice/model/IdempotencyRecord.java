@@ -0,0 +1,42 @@
+package com.ai.based.fitness.activityservice.model;
+
+import com.ai.based.fitness.activityservice.dto.ActivityResponse;
+import java.time.Instant;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * The outcome of the first request sent with an {@code Idempotency-Key}. The id is user and key,
+ * so the unique _id index decides which of several concurrent requests gets to do the work.
+ */
+@Document(collection = "idempotency_keys")
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class IdempotencyRecord {
+
+  @Id
+  private String id;
+
+  //  null while the original request is still running
+  private ActivityResponse response;
+
+  //  SHA-256 of the request body, a reused key with a different body is rejected
+  private String requestHash;
+
+  private Instant createdAt;
+
+  //  MongoDB's TTL monitor removes the record once this has passed
+  @Indexed(expireAfter = "0s")
+  private Instant expiresAt;
+
+  public static String id(String userId, String key) {
+    return userId + "|" + key;
+  }
+}
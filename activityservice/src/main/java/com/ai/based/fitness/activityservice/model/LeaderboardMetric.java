@@ -0,0 +1,6 @@
+package com.ai.based.fitness.activityservice.model;
+
+public enum LeaderboardMetric {
+  CALORIES,
+  DURATION
+}
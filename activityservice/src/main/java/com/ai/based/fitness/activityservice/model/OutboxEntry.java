@@ -0,0 +1,34 @@
+package com.ai.based.fitness.activityservice.model;
+
+import java.time.Instant;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Marks an activity whose event still has to be published. It's stored inside the activity
+ * document so that saving the activity and queueing its event is one atomic write, and removed by
+ * ActivityOutboxRelay once the broker confirmed the event.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class OutboxEntry {
+
+  private Instant createdAt;
+  private Instant nextAttemptAt;
+  private int attempts;
+
+  //  set by the relay instance currently publishing the entry
+  private String claim;
+  private String lastError;
+
+  public static OutboxEntry pending(Instant now) {
+    return OutboxEntry.builder()
+            .createdAt(now)
+            .nextAttemptAt(now)
+            .build();
+  }
+}
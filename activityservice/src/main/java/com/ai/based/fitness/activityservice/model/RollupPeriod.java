@@ -0,0 +1,18 @@
+package com.ai.based.fitness.activityservice.model;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+
+public enum RollupPeriod {
+  DAY,
+  //  ISO weeks, starting on Monday
+  WEEK;
+
+  public LocalDate startOf(LocalDate date) {
+    return switch (this) {
+      case DAY -> date;
+      case WEEK -> date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+    };
+  }
+}
@@ -0,0 +1,21 @@
+package com.ai.based.fitness.activityservice.model;
+
+/**
+ * The sample values that can be charted, with the name they are stored under.
+ */
+public enum SampleField {
+  HEART_RATE("hr"),
+  CADENCE("cad"),
+  SPEED("spd"),
+  ALTITUDE("alt");
+
+  private final String storedName;
+
+  SampleField(String storedName) {
+    this.storedName = storedName;
+  }
+
+  public String storedName() {
+    return storedName;
+  }
+}
@@ -0,0 +1,30 @@
+package com.ai.based.fitness.activityservice.repository;
+
+import com.ai.based.fitness.activityservice.dto.ActivityCursor;
+import com.ai.based.fitness.activityservice.dto.ActivityFilter;
+import com.ai.based.fitness.activityservice.dto.ActivityTypeSummary;
+import com.ai.based.fitness.activityservice.model.Activity;
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface ActivityRepositoryCustom {
+
+  /**
+   * Up to {@code limit} activities matching the filter that come after {@code after} (or from the
+   * newest one when it's null), newest first. Served from the (userId, startTime, _id) index, or
+   * the (userId, type, startTime, _id) one when filtering by type.
+   */
+  List<Activity> findPage(ActivityFilter filter, ActivityCursor after, int limit);
+
+  /**
+   * Count, duration and calories per activity type for the activities matching the filter,
+   * computed by the database.
+   */
+  List<ActivityTypeSummary> summarizeByType(ActivityFilter filter);
+
+  /**
+   * All activities of the user, newest first, read lazily from a database cursor. The stream has
+   * to be closed to release the cursor.
+   */
+  Stream<Activity> streamByUserId(String userId);
+}
@@ -0,0 +1,128 @@
+package com.ai.based.fitness.activityservice.repository;
+
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.group;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.match;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.newAggregation;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.project;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.sort;
+
+import com.ai.based.fitness.activityservice.dto.ActivityCursor;
+import com.ai.based.fitness.activityservice.dto.ActivityFilter;
+import com.ai.based.fitness.activityservice.dto.ActivityTypeSummary;
+import com.ai.based.fitness.activityservice.model.Activity;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import lombok.RequiredArgsConstructor;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+@RequiredArgsConstructor
+public class ActivityRepositoryCustomImpl implements ActivityRepositoryCustom {
+
+  //  documents the cursor fetches per round trip while streaming an export
+  private static final int EXPORT_BATCH_SIZE = 500;
+
+  private final MongoTemplate mongoTemplate;
+
+  @Override
+  public List<Activity> findPage(ActivityFilter filter, ActivityCursor after, int limit) {
+    return mongoTemplate.find(pageQuery(filter, after, limit), Activity.class);
+  }
+
+  @Override
+  public List<ActivityTypeSummary> summarizeByType(ActivityFilter filter) {
+    return mongoTemplate.aggregate(summaryAggregation(filter), Activity.class,
+            ActivityTypeSummary.class).getMappedResults();
+  }
+
+  @Override
+  public Stream<Activity> streamByUserId(String userId) {
+    Query query = new Query(Criteria.where("userId").is(userId))
+            .with(Sort.by(Sort.Order.desc("startTime"), Sort.Order.desc("_id")))
+            .cursorBatchSize(EXPORT_BATCH_SIZE);
+    return mongoTemplate.stream(query, Activity.class);
+  }
+
+  static Query pageQuery(ActivityFilter filter, ActivityCursor after, int limit) {
+    Criteria criteria = filterCriteria(filter);
+    if (after != null) {
+      criteria = new Criteria().andOperator(criteria, after(after));
+    }
+    Query query = new Query(criteria)
+            .with(Sort.by(Sort.Order.desc("startTime"), Sort.Order.desc("_id")))
+            .limit(limit);
+    if (!filter.isIncludeMetrics()) {
+      query.fields().exclude("additionalMetric");
+    }
+    return query;
+  }
+
+  static Aggregation summaryAggregation(ActivityFilter filter) {
+    return newAggregation(
+            match(filterCriteria(filter)),
+            group("type")
+                    .count().as("count")
+                    .sum("duration").as("totalDuration")
+                    .sum("caloriesBurned").as("totalCalories"),
+            project("count", "totalDuration", "totalCalories").and("type").previousOperation(),
+            sort(Sort.by("type")));
+  }
+
+  //  userId first and type right after it so that both compound indexes can serve the query
+  private static Criteria filterCriteria(ActivityFilter filter) {
+    Criteria criteria = Criteria.where("userId").is(filter.getUserId());
+    if (filter.getType() != null) {
+      criteria.and("type").is(filter.getType());
+    }
+    if (filter.getFrom() != null || filter.getTo() != null) {
+      Criteria startTime = criteria.and("startTime");
+      if (filter.getFrom() != null) {
+        startTime.gte(filter.getFrom());
+      }
+      if (filter.getTo() != null) {
+        startTime.lt(filter.getTo());
+      }
+    }
+    range(criteria, "metrics.distance", filter.getMinDistance(), filter.getMaxDistance());
+    range(criteria, "metrics.avgHeartRate", filter.getMinAvgHeartRate(),
+            filter.getMaxAvgHeartRate());
+    return criteria;
+  }
+
+  //  property paths, mapped to the short field names (m.d, m.hr) by the template
+  private static void range(Criteria criteria, String property, Object min, Object max) {
+    if (min == null && max == null) {
+      return;
+    }
+    Criteria range = criteria.and(property);
+    if (min != null) {
+      range.gte(min);
+    }
+    if (max != null) {
+      range.lte(max);
+    }
+  }
+
+  //  keyset condition for "comes after the cursor" in startTime desc, _id desc order. Missing
+  //  startTimes sort last in a descending sort, so they come after every real timestamp.
+  private static Criteria after(ActivityCursor cursor) {
+    ObjectId id = new ObjectId(cursor.id());
+    if (cursor.startTime() == null) {
+      return new Criteria().andOperator(
+              Criteria.where("startTime").is(null),
+              Criteria.where("_id").lt(id));
+    }
+    List<Criteria> after = new ArrayList<>();
+    after.add(Criteria.where("startTime").lt(cursor.startTime()));
+    after.add(new Criteria().andOperator(
+            Criteria.where("startTime").is(cursor.startTime()),
+            Criteria.where("_id").lt(id)));
+    after.add(Criteria.where("startTime").is(null));
+    return new Criteria().orOperator(after);
+  }
+}
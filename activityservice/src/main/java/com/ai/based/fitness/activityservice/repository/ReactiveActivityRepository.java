@@ -0,0 +1,14 @@
+package com.ai.based.fitness.activityservice.repository;
+
+import com.ai.based.fitness.activityservice.model.Activity;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Non-blocking access to the activities, only created with the {@code reactive} profile.
+ */
+@Repository
+public interface ReactiveActivityRepository extends ReactiveMongoRepository<Activity, String>,
+        ReactiveActivityRepositoryCustom {
+
+}
@@ -0,0 +1,14 @@
+package com.ai.based.fitness.activityservice.repository;
+
+import com.ai.based.fitness.activityservice.dto.ActivityCursor;
+import com.ai.based.fitness.activityservice.dto.ActivityFilter;
+import com.ai.based.fitness.activityservice.model.Activity;
+import reactor.core.publisher.Flux;
+
+public interface ReactiveActivityRepositoryCustom {
+
+  /**
+   * Same query as {@link ActivityRepositoryCustom#findPage}, emitted as the documents arrive.
+   */
+  Flux<Activity> findPage(ActivityFilter filter, ActivityCursor after, int limit);
+}
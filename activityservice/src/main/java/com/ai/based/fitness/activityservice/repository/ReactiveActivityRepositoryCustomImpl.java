@@ -0,0 +1,20 @@
+package com.ai.based.fitness.activityservice.repository;
+
+import com.ai.based.fitness.activityservice.dto.ActivityCursor;
+import com.ai.based.fitness.activityservice.dto.ActivityFilter;
+import com.ai.based.fitness.activityservice.model.Activity;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import reactor.core.publisher.Flux;
+
+@RequiredArgsConstructor
+public class ReactiveActivityRepositoryCustomImpl implements ReactiveActivityRepositoryCustom {
+
+  private final ReactiveMongoTemplate reactiveMongoTemplate;
+
+  @Override
+  public Flux<Activity> findPage(ActivityFilter filter, ActivityCursor after, int limit) {
+    return reactiveMongoTemplate.find(ActivityRepositoryCustomImpl.pageQuery(filter, after, limit),
+            Activity.class);
+  }
+}
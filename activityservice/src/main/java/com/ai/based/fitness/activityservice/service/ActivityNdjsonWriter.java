@@ -0,0 +1,54 @@
+package com.ai.based.fitness.activityservice.service;
+
+import com.ai.based.fitness.activityservice.dto.ActivityResponse;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+import org.springframework.stereotype.Component;
+
+/**
+ * Writes activities as newline-delimited JSON, one object per line, pulling them from the stream
+ * one at a time. Nothing is collected, so memory use doesn't depend on how many activities there
+ * are; a slow reader simply blocks the write, and with it the pull of the next activity.
+ */
+@Component
+public class ActivityNdjsonWriter {
+
+  //  flush regularly so the client sees data while a long export is still running
+  private static final int FLUSH_EVERY = 1_000;
+
+  private final ObjectMapper objectMapper;
+  private final ObjectWriter activityWriter;
+
+  public ActivityNdjsonWriter(ObjectMapper objectMapper) {
+    this.objectMapper = objectMapper;
+//    writeValue would otherwise flush after every activity
+    this.activityWriter = objectMapper.writerFor(ActivityResponse.class)
+            .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+  }
+
+  /**
+   * @return the number of activities written. {@code out} is flushed but left open.
+   */
+  public long write(Stream<ActivityResponse> activities, OutputStream out) throws IOException {
+    long written = 0;
+    try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+      generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+      Iterator<ActivityResponse> iterator = activities.iterator();
+      while (iterator.hasNext()) {
+        activityWriter.writeValue(generator, iterator.next());
+        generator.writeRaw('\n');
+        if (++written % FLUSH_EVERY == 0) {
+          generator.flush();
+        }
+      }
+      generator.flush();
+    }
+    return written;
+  }
+}
@@ -0,0 +1,230 @@
+package com.ai.based.fitness.activityservice.service;
+
+import com.ai.based.fitness.activityservice.config.BatchingRabbitPublisher;
+import com.ai.based.fitness.activityservice.dto.ActivityEvent;
+import com.ai.based.fitness.activityservice.model.Activity;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes the events of activities that carry an outbox entry in batches through
+ * {@link BatchingRabbitPublisher}, and removes each entry once the broker has confirmed its event.
+ * <p>
+ * A batch is first claimed with a lease, so several instances can run the relay without publishing
+ * the same events; if an instance dies mid-batch the lease runs out and another one retries.
+ * Events that were nacked, returned or not confirmed in time are retried with exponential backoff.
+ * Delivery is at least once, a crash between the confirm and the cleanup publishes a batch again.
+ */
+@Component
+@Slf4j
+public class ActivityOutboxRelay {
+
+  private static final String OUTBOX = "outbox";
+  private static final String NEXT_ATTEMPT_AT = "outbox.nextAttemptAt";
+
+  private final MongoTemplate mongoTemplate;
+  private final BatchingRabbitPublisher publisher;
+  private final String exchange;
+  private final String routingKey;
+  private final int batchSize;
+  private final Duration confirmTimeout;
+  private final Duration lease;
+  private final Duration initialBackoff;
+  private final Duration maxBackoff;
+
+  private final Counter published;
+  private final Counter failed;
+  private final Timer batchTimer;
+  private final AtomicLong pending = new AtomicLong();
+  private final AtomicLong lagMillis = new AtomicLong();
+
+  public ActivityOutboxRelay(MongoTemplate mongoTemplate, BatchingRabbitPublisher publisher,
+          MeterRegistry meterRegistry,
+          @Value("${rabbitmq.exchange.name}") String exchange,
+          @Value("${rabbitmq.routing.key}") String routingKey,
+          @Value("${activity.outbox.batch-size:200}") int batchSize,
+          @Value("${activity.outbox.confirm-timeout:5s}") Duration confirmTimeout,
+          @Value("${activity.outbox.lease:30s}") Duration lease,
+          @Value("${activity.outbox.initial-backoff:1s}") Duration initialBackoff,
+          @Value("${activity.outbox.max-backoff:5m}") Duration maxBackoff) {
+    this.mongoTemplate = mongoTemplate;
+    this.publisher = publisher;
+    this.exchange = exchange;
+    this.routingKey = routingKey;
+    this.batchSize = batchSize;
+    this.confirmTimeout = confirmTimeout;
+    this.lease = lease;
+    this.initialBackoff = initialBackoff;
+    this.maxBackoff = maxBackoff;
+
+    this.published = meterRegistry.counter("activity.outbox.published");
+    this.failed = meterRegistry.counter("activity.outbox.failed");
+    this.batchTimer = Timer.builder("activity.outbox.batch")
+            .description("Time until every event of an outbox batch was confirmed or failed")
+            .register(meterRegistry);
+    Gauge.builder("activity.outbox.pending", pending, AtomicLong::get)
+            .register(meterRegistry);
+    Gauge.builder("activity.outbox.lag", lagMillis, AtomicLong::get)
+            .description("Age of the oldest unpublished activity event")
+            .baseUnit("milliseconds")
+            .register(meterRegistry);
+  }
+
+  @Scheduled(fixedDelayString = "${activity.outbox.poll-interval:500ms}")
+  public void relay() {
+//    keep going while batches come back full, stop on the first short or failed one
+    while (relayBatch() == batchSize) {
+      log.debug("Outbox batch full, relaying the next one right away");
+    }
+    updateBacklogMetrics();
+  }
+
+  /**
+   * @return how many events were published, 0 when nothing was due or any of them failed
+   */
+  int relayBatch() {
+    Instant now = Instant.now();
+    String claim = UUID.randomUUID().toString();
+    List<Activity> batch = claimBatch(claim, now);
+    if (batch.isEmpty()) {
+      return 0;
+    }
+
+    long started = System.nanoTime();
+    List<CompletableFuture<Void>> confirms = batch.stream()
+            .map(activity -> publisher.publish(exchange, routingKey, ActivityEvent.from(activity)))
+            .toList();
+    publisher.flush();
+    try {
+      CompletableFuture.allOf(confirms.toArray(CompletableFuture[]::new))
+              .get(confirmTimeout.toMillis(), TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException | TimeoutException e) {
+      log.debug("Not every outbox event was confirmed: {}", e.getMessage());
+    }
+    batchTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+
+//    whatever was confirmed is done even if others in the batch failed
+    List<String> confirmedIds = new ArrayList<>(batch.size());
+    List<Activity> unconfirmed = new ArrayList<>();
+    String error = null;
+    for (int i = 0; i < batch.size(); i++) {
+      CompletableFuture<Void> confirm = confirms.get(i);
+      if (confirm.isDone() && !confirm.isCompletedExceptionally()) {
+        confirmedIds.add(batch.get(i).getId());
+      } else {
+        unconfirmed.add(batch.get(i));
+        error = error != null ? error : failureReason(confirm);
+      }
+    }
+
+    if (!confirmedIds.isEmpty()) {
+      mongoTemplate.updateMulti(
+              new Query(Criteria.where("_id").in(confirmedIds).and("outbox.claim").is(claim)),
+              new Update().unset(OUTBOX), Activity.class);
+      published.increment(confirmedIds.size());
+    }
+    if (!unconfirmed.isEmpty()) {
+      log.warn("{} of {} outbox events failed, will retry: {}", unconfirmed.size(), batch.size(),
+              error);
+      failed.increment(unconfirmed.size());
+      scheduleRetry(unconfirmed, error, now);
+      return 0;
+    }
+    return batch.size();
+  }
+
+  private static String failureReason(CompletableFuture<Void> confirm) {
+    if (!confirm.isDone()) {
+      return "not confirmed in time";
+    }
+    try {
+      confirm.join();
+      return null;
+    } catch (CompletionException e) {
+      return String.valueOf(e.getCause() != null ? e.getCause().getMessage() : e.getMessage());
+    }
+  }
+
+  //  two steps because updateMulti has no limit: pick due ids, then take the ones still due
+  private List<Activity> claimBatch(String claim, Instant now) {
+    Query due = new Query(dueCriteria(now))
+            .with(Sort.by(NEXT_ATTEMPT_AT))
+            .limit(batchSize);
+    due.fields().include("_id");
+    List<String> ids = mongoTemplate.find(due, Activity.class).stream()
+            .map(Activity::getId)
+            .toList();
+    if (ids.isEmpty()) {
+      return List.of();
+    }
+
+    mongoTemplate.updateMulti(
+            new Query(new Criteria().andOperator(Criteria.where("_id").in(ids), dueCriteria(now))),
+            new Update().set("outbox.claim", claim).set(NEXT_ATTEMPT_AT, now.plus(lease)),
+            Activity.class);
+    return mongoTemplate.find(
+            new Query(Criteria.where("_id").in(ids).and("outbox.claim").is(claim)),
+            Activity.class);
+  }
+
+  private void scheduleRetry(List<Activity> batch, String error, Instant now) {
+    for (Activity activity : batch) {
+      int attempts = activity.getOutbox().getAttempts() + 1;
+      mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(activity.getId())),
+              new Update()
+                      .set("outbox.attempts", attempts)
+                      .set(NEXT_ATTEMPT_AT, now.plus(backoff(attempts)))
+                      .set("outbox.lastError", error)
+                      .unset("outbox.claim"),
+              Activity.class);
+    }
+  }
+
+  Duration backoff(int attempts) {
+    Duration backoff = initialBackoff.multipliedBy(1L << Math.min(attempts - 1, 20));
+    return backoff.compareTo(maxBackoff) > 0 ? maxBackoff : backoff;
+  }
+
+  private void updateBacklogMetrics() {
+    Query oldest = new Query(pendingCriteria())
+            .with(Sort.by("outbox.createdAt"))
+            .limit(1);
+    Activity activity = mongoTemplate.findOne(oldest, Activity.class);
+    lagMillis.set(activity == null ? 0
+            : Duration.between(activity.getOutbox().getCreatedAt(), Instant.now()).toMillis());
+    pending.set(mongoTemplate.count(new Query(pendingCriteria()), Activity.class));
+  }
+
+  //  both repeat the partial index filter ($exists) so the planner can use that index
+  private static Criteria pendingCriteria() {
+    return Criteria.where(NEXT_ATTEMPT_AT).exists(true);
+  }
+
+  private static Criteria dueCriteria(Instant now) {
+    return Criteria.where(NEXT_ATTEMPT_AT).exists(true).lte(now);
+  }
+}
@@ -0,0 +1,36 @@
+package com.ai.based.fitness.activityservice.service;
+
+import com.ai.based.fitness.activityservice.dto.ActivityCursor;
+import com.ai.based.fitness.activityservice.dto.ActivityPage;
+import com.ai.based.fitness.activityservice.dto.ActivityResponse;
+import com.ai.based.fitness.activityservice.model.Activity;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Keyset paging of a user's activities, shared by ActivityService and ReactiveActivityService:
+ * the page size clamped to {@code activity.page.max-limit}, the decoded cursor, and the next
+ * cursor of the fetched rows.
+ */
+record ActivityPageQuery(int pageSize, ActivityCursor after) {
+
+  static ActivityPageQuery of(int limit, String cursor, int maxPageLimit) {
+    return new ActivityPageQuery(Math.max(1, Math.min(limit, maxPageLimit)),
+            cursor != null && !cursor.isBlank() ? ActivityCursor.decode(cursor) : null);
+  }
+
+  //  one extra row tells us whether there is a next page without a count query
+  int fetchSize() {
+    return pageSize + 1;
+  }
+
+  ActivityPage toPage(List<Activity> rows, Function<Activity, ActivityResponse> mapper) {
+    String nextCursor = null;
+    if (rows.size() > pageSize) {
+      rows = rows.subList(0, pageSize);
+      Activity last = rows.get(pageSize - 1);
+      nextCursor = new ActivityCursor(last.getStartTime(), last.getId()).encode();
+    }
+    return new ActivityPage(rows.stream().map(mapper).toList(), nextCursor);
+  }
+}
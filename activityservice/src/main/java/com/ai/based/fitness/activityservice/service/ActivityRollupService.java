@@ -0,0 +1,153 @@
+package com.ai.based.fitness.activityservice.service;
+
+import com.ai.based.fitness.activityservice.dto.ActivityRollupResponse;
+import com.ai.based.fitness.activityservice.model.Activity;
+import com.ai.based.fitness.activityservice.model.ActivityRollup;
+import com.ai.based.fitness.activityservice.model.RollupPeriod;
+import com.ai.based.fitness.activityservice.repository.ActivityRepository;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+/**
+ * Maintains the per user daily and weekly totals in {@link ActivityRollup}, so progress views read
+ * one document per period and type instead of every activity.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ActivityRollupService {
+
+  private final MongoTemplate mongoTemplate;
+  private final ActivityRepository activityRepository;
+
+  //  one bulk write for all periods of all given activities, each an atomic $inc upsert
+  public void record(List<Activity> activities) {
+    if (activities.isEmpty()) {
+      return;
+    }
+    BulkOperations bulk = mongoTemplate.bulkOps(BulkMode.UNORDERED, ActivityRollup.class);
+    for (Activity activity : activities) {
+      LocalDate day = dayOf(activity);
+      for (RollupPeriod period : RollupPeriod.values()) {
+        LocalDate periodStart = period.startOf(day);
+        bulk.upsert(new Query(Criteria.where("_id").is(
+                        ActivityRollup.id(activity.getUserId(), period, periodStart,
+                                activity.getType()))),
+                new Update()
+                        .setOnInsert("userId", activity.getUserId())
+                        .setOnInsert("period", period)
+                        .setOnInsert("periodStart", periodStart)
+                        .setOnInsert("type", activity.getType())
+                        .inc("count", 1)
+                        .inc("totalDuration", valueOf(activity.getDuration()))
+                        .inc("totalCalories", valueOf(activity.getCaloriesBurned())));
+      }
+    }
+    bulk.execute();
+  }
+
+  public List<ActivityRollupResponse> getRollups(String userId, RollupPeriod period,
+          LocalDate from, LocalDate to) {
+    Criteria criteria = Criteria.where("userId").is(userId).and("period").is(period);
+    if (from != null || to != null) {
+      Criteria periodStart = criteria.and("periodStart");
+      if (from != null) {
+        periodStart.gte(period.startOf(from));
+      }
+      if (to != null) {
+        periodStart.lt(to);
+      }
+    }
+    Query query = new Query(criteria).with(Sort.by("periodStart", "type"));
+    return mongoTemplate.find(query, ActivityRollup.class).stream()
+            .map(this::mapToResponse)
+            .collect(Collectors.toList());
+  }
+
+  /**
+   * Recomputes the user's rollups from their raw activities and replaces the stored ones. Memory
+   * is bounded by the number of periods, the activities are streamed. Activities tracked for the
+   * user while this runs can be missed, so run it when the user is quiet or run it again.
+   */
+  public int rebuild(String userId) {
+    Map<String, ActivityRollup> rollups = new HashMap<>();
+    try (Stream<Activity> activities = activityRepository.streamByUserId(userId)) {
+      activities.forEach(activity -> {
+        LocalDate day = dayOf(activity);
+        for (RollupPeriod period : RollupPeriod.values()) {
+          LocalDate periodStart = period.startOf(day);
+          ActivityRollup rollup = rollups.computeIfAbsent(
+                  ActivityRollup.id(userId, period, periodStart, activity.getType()),
+                  id -> ActivityRollup.builder()
+                          .id(id)
+                          .userId(userId)
+                          .period(period)
+                          .periodStart(periodStart)
+                          .type(activity.getType())
+                          .build());
+          rollup.setCount(rollup.getCount() + 1);
+          rollup.setTotalDuration(rollup.getTotalDuration() + valueOf(activity.getDuration()));
+          rollup.setTotalCalories(
+                  rollup.getTotalCalories() + valueOf(activity.getCaloriesBurned()));
+        }
+      });
+    }
+
+    mongoTemplate.remove(new Query(Criteria.where("userId").is(userId)), ActivityRollup.class);
+    if (!rollups.isEmpty()) {
+      mongoTemplate.bulkOps(BulkMode.UNORDERED, ActivityRollup.class)
+              .insert(List.copyOf(rollups.values()))
+              .execute();
+    }
+    return rollups.size();
+  }
+
+  public void rebuildAll() {
+    List<String> userIds = mongoTemplate.findDistinct(new Query(), "userId", Activity.class,
+            String.class);
+    log.info("Rebuilding activity rollups for {} users", userIds.size());
+    for (String userId : userIds) {
+      int rollups = rebuild(userId);
+      log.debug("Rebuilt {} rollups for user {}", rollups, userId);
+    }
+    log.info("Activity rollups rebuilt");
+  }
+
+  //  activities without a start time count for the day they were tracked
+  private static LocalDate dayOf(Activity activity) {
+    if (activity.getStartTime() != null) {
+      return activity.getStartTime().toLocalDate();
+    }
+    return activity.getCreatedAt() != null ? activity.getCreatedAt().toLocalDate()
+            : LocalDate.now();
+  }
+
+  private static long valueOf(Integer value) {
+    return value != null ? value : 0;
+  }
+
+  private ActivityRollupResponse mapToResponse(ActivityRollup rollup) {
+    ActivityRollupResponse response = new ActivityRollupResponse();
+    response.setPeriod(rollup.getPeriod());
+    response.setPeriodStart(rollup.getPeriodStart());
+    response.setType(rollup.getType());
+    response.setCount(rollup.getCount());
+    response.setTotalDuration(rollup.getTotalDuration());
+    response.setTotalCalories(rollup.getTotalCalories());
+    return response;
+  }
+}
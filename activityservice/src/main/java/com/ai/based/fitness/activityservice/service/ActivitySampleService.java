@@ -0,0 +1,204 @@
+package com.ai.based.fitness.activityservice.service;
+
+import com.ai.based.fitness.activityservice.dto.SamplePoint;
+import com.ai.based.fitness.activityservice.dto.SampleRequest;
+import com.ai.based.fitness.activityservice.model.Activity;
+import com.ai.based.fitness.activityservice.model.ActivitySample;
+import com.ai.based.fitness.activityservice.model.DownsampleMode;
+import com.ai.based.fitness.activityservice.model.SampleField;
+import com.ai.based.fitness.activityservice.repository.ActivityRepository;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Stream;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Stores the per second sensor samples of activities in the {@code activity_samples} time-series
+ * collection and serves them downsampled, so a chart gets a few hundred points instead of every
+ * sample of a two hour ride.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ActivitySampleService {
+
+  private static final String COLLECTION = "activity_samples";
+
+  private final MongoTemplate mongoTemplate;
+  private final ActivityRepository activityRepository;
+
+  @Value("${activity.samples.max-chunk-size:5000}")
+  private int maxChunkSize;
+
+  @Value("${activity.samples.max-points:5000}")
+  private int maxPoints;
+
+  //  inserting into a missing collection would create a regular one, so create it upfront
+  @EventListener(ApplicationReadyEvent.class)
+  public void createCollection() {
+    try {
+      if (!mongoTemplate.collectionExists(ActivitySample.class)) {
+        mongoTemplate.createCollection(ActivitySample.class);
+        log.info("Created time-series collection {}", COLLECTION);
+      }
+    } catch (Exception e) {
+      log.error("Could not create time-series collection {}", COLLECTION, e);
+    }
+  }
+
+  /**
+   * Appends one chunk of samples to an activity with a single insertMany. Clients upload long
+   * recordings in several chunks, they don't need to be in order.
+   */
+  public int addSamples(String userId, String activityId, List<SampleRequest> requests) {
+    if (requests.size() > maxChunkSize) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+              "Chunk too large: " + requests.size() + " > " + maxChunkSize);
+    }
+    checkOwner(userId, activityId);
+    if (requests.isEmpty()) {
+      return 0;
+    }
+
+    List<ActivitySample> samples = new ArrayList<>(requests.size());
+    for (SampleRequest request : requests) {
+      if (request.getTimestamp() == null) {
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "Sample without timestamp for activity " + activityId);
+      }
+      samples.add(ActivitySample.builder()
+              .activityId(activityId)
+              .timestamp(request.getTimestamp())
+              .heartRate(request.getHeartRate())
+              .cadence(request.getCadence())
+              .speed(request.getSpeed())
+              .altitude(request.getAltitude())
+              .latitude(request.getLatitude())
+              .longitude(request.getLongitude())
+              .build());
+    }
+    mongoTemplate.insert(samples, ActivitySample.class);
+    return samples.size();
+  }
+
+  public List<SamplePoint> getSamples(String userId, String activityId, SampleField field,
+          DownsampleMode mode, int points, Instant from, Instant to) {
+    checkOwner(userId, activityId);
+    int threshold = Math.max(3, Math.min(points, maxPoints));
+    return mode == DownsampleMode.AVERAGE
+            ? averages(activityId, field, threshold, from, to)
+            : lttb(activityId, field, threshold, from, to);
+  }
+
+  //  reads only timestamp and value of the field into primitive arrays, then picks the points
+  private List<SamplePoint> lttb(String activityId, SampleField field, int threshold,
+          Instant from, Instant to) {
+    Query query = new Query(criteria(activityId, field, from, to))
+            .with(Sort.by("timestamp"))
+            .cursorBatchSize(5000);
+    query.fields().include("timestamp", field.storedName()).exclude("_id");
+
+    long[] x = new long[1024];
+    double[] y = new double[1024];
+    int length = 0;
+    try (Stream<Document> samples = mongoTemplate.stream(query, Document.class, COLLECTION)) {
+      for (Document sample : (Iterable<Document>) samples::iterator) {
+        if (length == x.length) {
+          x = Arrays.copyOf(x, length * 2);
+          y = Arrays.copyOf(y, length * 2);
+        }
+        x[length] = sample.getDate("timestamp").getTime();
+        y[length] = ((Number) sample.get(field.storedName())).doubleValue();
+        length++;
+      }
+    }
+
+    int[] kept = Downsampling.lttb(x, y, length, threshold);
+    List<SamplePoint> result = new ArrayList<>(kept.length);
+    for (int index : kept) {
+      result.add(new SamplePoint(Instant.ofEpochMilli(x[index]), y[index]));
+    }
+    return result;
+  }
+
+  //  splits [from, to] into threshold intervals and lets MongoDB average each of them
+  private List<SamplePoint> averages(String activityId, SampleField field, int threshold,
+          Instant from, Instant to) {
+    Instant start = from != null ? from : boundary(activityId, field, Sort.Direction.ASC);
+    Instant end = to != null ? to : boundary(activityId, field, Sort.Direction.DESC);
+    if (start == null || end == null) {
+      return List.of();
+    }
+    long startMillis = start.toEpochMilli();
+    long interval = Math.max(1, (end.toEpochMilli() - startMillis) / threshold + 1);
+
+    Document millis = new Document("$toLong", "$timestamp");
+    Document bucketStart = new Document("$subtract", List.of(millis,
+            new Document("$mod", List.of(
+                    new Document("$subtract", List.of(millis, startMillis)), interval))));
+    Aggregation aggregation = Aggregation.newAggregation(
+            Aggregation.match(criteria(activityId, field, start, end)),
+            context -> new Document("$group", new Document("_id", bucketStart)
+                    .append("value", new Document("$avg", "$" + field.storedName()))),
+            Aggregation.sort(Sort.Direction.ASC, "_id"));
+
+    return mongoTemplate.aggregate(aggregation, COLLECTION, Document.class)
+            .getMappedResults().stream()
+            .map(bucket -> new SamplePoint(
+                    Instant.ofEpochMilli(((Number) bucket.get("_id")).longValue()),
+                    ((Number) bucket.get("value")).doubleValue()))
+            .toList();
+  }
+
+  private Instant boundary(String activityId, SampleField field, Sort.Direction direction) {
+    Query query = new Query(criteria(activityId, field, null, null))
+            .with(Sort.by(direction, "timestamp"))
+            .limit(1);
+    query.fields().include("timestamp").exclude("_id");
+    Document sample = mongoTemplate.findOne(query, Document.class, COLLECTION);
+    Date timestamp = sample != null ? sample.getDate("timestamp") : null;
+    return timestamp != null ? timestamp.toInstant() : null;
+  }
+
+  private static Criteria criteria(String activityId, SampleField field, Instant from,
+          Instant to) {
+    Criteria criteria = Criteria.where("activityId").is(activityId)
+            .and(field.storedName()).ne(null);
+    if (from != null || to != null) {
+      Criteria timestamp = criteria.and("timestamp");
+      if (from != null) {
+        timestamp.gte(Date.from(from));
+      }
+      if (to != null) {
+        timestamp.lte(Date.from(to));
+      }
+    }
+    return criteria;
+  }
+
+  private void checkOwner(String userId, String activityId) {
+    Activity activity = activityRepository.findById(activityId)
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND,
+                    "Activity not found with ID: " + activityId));
+    if (!activity.getUserId().equals(userId)) {
+      throw new ResponseStatusException(HttpStatus.FORBIDDEN,
+              "Activity " + activityId + " does not belong to user " + userId);
+    }
+  }
+}
@@ -1,15 +1,32 @@
 package com.ai.based.fitness.activityservice.service;
 
+import com.ai.based.fitness.activityservice.dto.ActivityFilter;
+import com.ai.based.fitness.activityservice.dto.ActivityPage;
 import com.ai.based.fitness.activityservice.dto.ActivityRequest;
 import com.ai.based.fitness.activityservice.dto.ActivityResponse;
+import com.ai.based.fitness.activityservice.dto.ActivityTypeSummary;
+import com.ai.based.fitness.activityservice.dto.BatchActivityResult;
 import com.ai.based.fitness.activityservice.model.Activity;
+import com.ai.based.fitness.activityservice.model.ActivityMetrics;
+import com.ai.based.fitness.activityservice.model.OutboxEntry;
 import com.ai.based.fitness.activityservice.repository.ActivityRepository;
+import com.mongodb.bulk.BulkWriteError;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.stream.Stream;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -19,13 +36,16 @@ public class ActivityService {
 
   private final ActivityRepository repository;
   private final UserValidationService userValidationService;
-  private final RabbitTemplate rabbitTemplate;
+  private final MongoTemplate mongoTemplate;
+  private final ActivityNdjsonWriter ndjsonWriter;
+  private final ActivityRollupService rollupService;
+  private final WeeklyLeaderboard leaderboard;
 
-  @Value("${rabbitmq.exchange.name}")
-  private String exchange;
+  @Value("${activity.batch.max-size:500}")
+  private int maxBatchSize;
 
-  @Value("${rabbitmq.routing.key}")
-  private String routingKey;
+  @Value("${activity.page.max-limit:200}")
+  private int maxPageLimit;
 
   public ActivityResponse trackActivity(ActivityRequest request) {
 
@@ -34,33 +54,117 @@ public class ActivityService {
       throw new RuntimeException("Invalid User: " + request.getUserId());
     }
 
-    Activity activity = Activity.builder()
-            .userId(request.getUserId())
-            .type(request.getType())
-            .duration(request.getDuration())
-            .caloriesBurned(request.getCaloriesBurned())
-            .startTime(request.getStartTime())
-            .additionalMetric(request.getAdditionalMetrics())
-            .build();
+    Activity activity = toActivity(request, request.getUserId());
 
+//    the event for AI processing is written with the activity, ActivityOutboxRelay publishes it
+    activity.setOutbox(OutboxEntry.pending(Instant.now()));
     Activity savedActivity = repository.save(activity);
+    updateRollups(List.of(savedActivity));
+    return mapToResponse(savedActivity);
+  }
+
+  /**
+   * Stores a batch of activities for one user with a single unordered bulk insert, their events
+   * go out through the outbox like single ones. A failing item doesn't stop the others, the result
+   * list says per index what happened.
+   */
+  public List<BatchActivityResult> trackActivities(String userId, List<ActivityRequest> requests) {
+    if (requests.size() > maxBatchSize) {
+      throw new RuntimeException("Batch too large: " + requests.size() + " > " + maxBatchSize);
+    }
+    if (!userValidationService.validateUser(userId)) {
+      throw new RuntimeException("Invalid User: " + userId);
+    }
+    if (requests.isEmpty()) {
+      return List.of();
+    }
+
+//    ids and timestamps are set here: bulk inserts don't write generated ids back, and auditing
+//    treats an entity that already has an id as not new, so createdAt would stay empty
+    LocalDateTime now = LocalDateTime.now();
+    Instant enqueuedAt = Instant.now();
+    List<Activity> activities = new ArrayList<>(requests.size());
+    for (ActivityRequest request : requests) {
+      Activity activity = toActivity(request, userId);
+      activity.setId(new ObjectId().toHexString());
+      activity.setCreatedAt(now);
+      activity.setUpdatedAt(now);
+      activity.setOutbox(OutboxEntry.pending(enqueuedAt));
+      activities.add(activity);
+    }
+
+    Map<Integer, String> failures = new HashMap<>();
+    try {
+      mongoTemplate.bulkOps(BulkMode.UNORDERED, Activity.class)
+              .insert(activities)
+              .execute();
+    } catch (BulkOperationException e) {
+      for (BulkWriteError error : e.getErrors()) {
+        failures.put(error.getIndex(), error.getMessage());
+      }
+      log.warn("Batch insert for user {}: {} of {} activities failed", userId,
+              failures.size(), activities.size());
+    }
 
-//    Publish to RabbitMQ for AI processing
+    List<BatchActivityResult> results = new ArrayList<>(activities.size());
+    List<Activity> saved = new ArrayList<>(activities.size());
+    for (int i = 0; i < activities.size(); i++) {
+      String error = failures.get(i);
+      if (error != null) {
+        results.add(BatchActivityResult.failure(i, error));
+      } else {
+        saved.add(activities.get(i));
+        results.add(BatchActivityResult.success(i, mapToResponse(activities.get(i))));
+      }
+    }
+    updateRollups(saved);
+    return results;
+  }
+
+  public ActivityPage getUserActivities(ActivityFilter filter, int limit, String cursor) {
+    ActivityPageQuery page = ActivityPageQuery.of(limit, cursor, maxPageLimit);
+    return page.toPage(repository.findPage(filter, page.after(), page.fetchSize()),
+            this::mapToResponse);
+  }
+
+  //  streams straight from the Mongo cursor to the response, see ActivityNdjsonWriter
+  public void exportUserActivities(String userId, OutputStream out) throws IOException {
+    try (Stream<Activity> activities = repository.streamByUserId(userId)) {
+      long exported = ndjsonWriter.write(activities.map(this::mapToResponse), out);
+      log.info("Exported {} activities for user {}", exported, userId);
+    }
+  }
+
+  public List<ActivityTypeSummary> getActivitySummary(ActivityFilter filter) {
+    return repository.summarizeByType(filter);
+  }
+
+  //  the activity is stored either way, a rollup that missed it is fixed by a rebuild
+  void updateRollups(List<Activity> activities) {
+    leaderboard.record(activities);
     try {
-      rabbitTemplate.convertAndSend(exchange, routingKey, savedActivity);
+      rollupService.record(activities);
     } catch (Exception e) {
-      log.error("Failed to publish activity to RabbitMQ: ", e);
+      log.error("Failed to update activity rollups: ", e);
     }
-    return mapToResponse(savedActivity);
   }
 
-  public List<ActivityResponse> getUserActivities(String userId) {
-    List<Activity> activities = repository.findByUserId(userId);
-    return activities.stream().map((this::mapToResponse))
-            .collect(Collectors.toList());
+  Activity toActivity(ActivityRequest request, String userId) {
+    ActivityMetrics.Split split = ActivityMetrics.split(request.getAdditionalMetrics());
+    ActivityMetrics metrics = split.metrics() != null
+            ? split.metrics().mergedWith(request.getMetrics()) : request.getMetrics();
+    return Activity.builder()
+            .userId(userId)
+            .type(request.getType())
+            .duration(request.getDuration())
+            .caloriesBurned(request.getCaloriesBurned())
+            .startTime(request.getStartTime())
+            .metrics(metrics != null && !metrics.isEmpty() ? metrics : null)
+            .additionalMetric(split.extras())
+            .build();
   }
 
-  private ActivityResponse mapToResponse(Activity activity) {
+  ActivityResponse mapToResponse(Activity activity) {
     ActivityResponse response = new ActivityResponse();
     response.setId(activity.getId());
     response.setUserId(activity.getUserId());
@@ -68,7 +172,9 @@ public class ActivityService {
     response.setDuration(activity.getDuration());
     response.setCaloriesBurned(activity.getCaloriesBurned());
     response.setStartTime(activity.getStartTime());
-    response.setAdditionalMetric(activity.getAdditionalMetric());
+    response.setMetrics(activity.getMetrics());
+    response.setAdditionalMetric(
+            ActivityMetrics.merge(activity.getMetrics(), activity.getAdditionalMetric()));
     response.setCreatedAt(activity.getCreatedAt());
     response.setUpdatedAt(activity.getUpdatedAt());
 
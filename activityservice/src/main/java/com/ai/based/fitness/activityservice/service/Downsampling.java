@@ -0,0 +1,67 @@
+package com.ai.based.fitness.activityservice.service;
+
+/**
+ * Reduces a time series to a given number of points for charting.
+ */
+public final class Downsampling {
+
+  private Downsampling() {
+  }
+
+  /**
+   * Largest-Triangle-Three-Buckets: keeps the first and last point and, from each of the
+   * {@code threshold - 2} buckets in between, the point that forms the largest triangle with the
+   * point kept before it and the average of the next bucket. Peaks and dips survive, unlike with
+   * plain averaging. {@code x} has to be ascending.
+   *
+   * @return indexes of the points to keep, ascending
+   */
+  public static int[] lttb(long[] x, double[] y, int length, int threshold) {
+    if (threshold >= length || threshold < 3) {
+      int[] all = new int[length];
+      for (int i = 0; i < all.length; i++) {
+        all[i] = i;
+      }
+      return all;
+    }
+
+    int[] kept = new int[threshold];
+    double bucketSize = (double) (length - 2) / (threshold - 2);
+    int previous = 0;
+    kept[0] = 0;
+
+    for (int bucket = 0; bucket < threshold - 2; bucket++) {
+      int start = (int) Math.floor(bucket * bucketSize) + 1;
+      int end = (int) Math.floor((bucket + 1) * bucketSize) + 1;
+
+//      average of the next bucket, the last point stands in for the one after the last bucket
+      int nextStart = end;
+      int nextEnd = Math.min((int) Math.floor((bucket + 2) * bucketSize) + 1, length);
+      double avgX = 0;
+      double avgY = 0;
+      for (int i = nextStart; i < nextEnd; i++) {
+        avgX += x[i];
+        avgY += y[i];
+      }
+      int nextCount = nextEnd - nextStart;
+      avgX /= nextCount;
+      avgY /= nextCount;
+
+      double maxArea = -1;
+      int chosen = start;
+      for (int i = start; i < end; i++) {
+        double area = Math.abs((x[previous] - avgX) * (y[i] - y[previous])
+                - (x[previous] - x[i]) * (avgY - y[previous]));
+        if (area > maxArea) {
+          maxArea = area;
+          chosen = i;
+        }
+      }
+      kept[bucket + 1] = chosen;
+      previous = chosen;
+    }
+
+    kept[threshold - 1] = length - 1;
+    return kept;
+  }
+}
@@ -0,0 +1,254 @@
+package com.ai.based.fitness.activityservice.service;
+
+import com.ai.based.fitness.activityservice.dto.ActivityResponse;
+import com.ai.based.fitness.activityservice.model.IdempotencyRecord;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Runs a request at most once per user and {@code Idempotency-Key} within the ttl, retries get the
+ * first response back.
+ * <p>
+ * Completed responses are kept in memory in front of the {@code idempotency_keys} collection, so a
+ * repeated retry costs a map lookup. Duplicates arriving while the original is still running wait
+ * for it: on the same instance on its future, across instances by polling the record.
+ * A failed request removes its record so that the client can retry with the same key. A record
+ * that never got a response and is older than the {@code lease} belongs to an instance that died
+ * mid-request, the next request with that key takes it over. The lease is much longer than the
+ * wait timeout, so a slow but live request is never run twice. Reusing a key with a different
+ * body is answered with 422.
+ */
+@Service
+@Slf4j
+public class IdempotencyService {
+
+  private final MongoTemplate mongoTemplate;
+  private final ObjectWriter requestWriter;
+  private final Duration ttl;
+  private final Duration waitTimeout;
+  private final Duration lease;
+  private final Duration pollInterval;
+  private final Cache<String, Outcome> completed;
+  private final ConcurrentMap<String, InFlight> inFlight = new ConcurrentHashMap<>();
+
+  public IdempotencyService(MongoTemplate mongoTemplate, ObjectMapper objectMapper,
+          @Value("${activity.idempotency.ttl:24h}") Duration ttl,
+          @Value("${activity.idempotency.cache-size:100000}") long cacheSize,
+          @Value("${activity.idempotency.wait-timeout:10s}") Duration waitTimeout,
+          @Value("${activity.idempotency.lease:5m}") Duration lease,
+          @Value("${activity.idempotency.poll-interval:50ms}") Duration pollInterval) {
+    this.mongoTemplate = mongoTemplate;
+    //  sorted map keys, so equal metrics maps hash the same whatever order they were filled in
+    this.requestWriter = objectMapper.writer()
+            .with(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS);
+    this.ttl = ttl;
+    this.waitTimeout = waitTimeout;
+    this.lease = lease;
+    this.pollInterval = pollInterval;
+    this.completed = Caffeine.newBuilder()
+            .maximumSize(cacheSize)
+            .expireAfterWrite(ttl)
+            .build();
+  }
+
+  public ActivityResponse execute(String userId, String key, Object request,
+          Supplier<ActivityResponse> action) {
+    if (key.isBlank() || key.length() > 255) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+              "Idempotency-Key must have 1 to 255 characters");
+    }
+    String id = IdempotencyRecord.id(userId, key);
+    String requestHash = hash(request);
+
+    Outcome cached = completed.getIfPresent(id);
+    if (cached != null) {
+      checkSameRequest(cached.requestHash(), requestHash);
+      return cached.response();
+    }
+
+    InFlight own = new InFlight(requestHash, new CompletableFuture<>());
+    InFlight running = inFlight.putIfAbsent(id, own);
+    if (running != null) {
+      checkSameRequest(running.requestHash(), requestHash);
+      return await(id, running.future());
+    }
+    try {
+      ActivityResponse response = executeOnce(id, requestHash, action);
+      own.future().complete(response);
+      return response;
+    } catch (RuntimeException e) {
+      own.future().completeExceptionally(e);
+      throw e;
+    } finally {
+      inFlight.remove(id, own);
+    }
+  }
+
+  private ActivityResponse executeOnce(String id, String requestHash,
+          Supplier<ActivityResponse> action) {
+    Instant now = Instant.now();
+    try {
+      mongoTemplate.insert(IdempotencyRecord.builder()
+              .id(id)
+              .requestHash(requestHash)
+              .createdAt(now)
+              .expiresAt(now.plus(ttl))
+              .build());
+    } catch (DuplicateKeyException e) {
+//      another instance got the key first, or it's a retry of a request we have forgotten about
+      ActivityResponse response = awaitRecord(id, requestHash);
+      if (response != null) {
+        return response;
+      }
+    }
+
+    ActivityResponse response;
+    try {
+      response = action.get();
+    } catch (RuntimeException e) {
+      mongoTemplate.remove(new Query(Criteria.where("_id").is(id)), IdempotencyRecord.class);
+      throw e;
+    }
+    storeResponse(id, requestHash, response);
+    completed.put(id, new Outcome(requestHash, response));
+    return response;
+  }
+
+  //  the activity is saved at this point, failing the request would only make the client retry
+  //  it. An upsert puts the record back should it have expired in the meantime
+  private void storeResponse(String id, String requestHash, ActivityResponse response) {
+    Instant now = Instant.now();
+    try {
+      mongoTemplate.upsert(new Query(Criteria.where("_id").is(id)),
+              Update.update("response", response)
+                      .set("requestHash", requestHash)
+                      .setOnInsert("createdAt", now)
+                      .setOnInsert("expiresAt", now.plus(ttl)),
+              IdempotencyRecord.class);
+    } catch (RuntimeException e) {
+      log.warn("Could not store the response for idempotency key {}, only this instance will "
+              + "answer retries from memory: {}", id, e.getMessage());
+    }
+  }
+
+  private ActivityResponse await(String id, CompletableFuture<ActivityResponse> running) {
+    try {
+      return running.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw new RuntimeException(e.getCause());
+    } catch (TimeoutException e) {
+      throw stillRunning(id);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw stillRunning(id);
+    }
+  }
+
+  //  the stored response, or null once the record has been taken over and the caller runs the
+  //  request itself
+  private ActivityResponse awaitRecord(String id, String requestHash) {
+    long deadline = System.nanoTime() + waitTimeout.toNanos();
+    while (true) {
+      IdempotencyRecord record = mongoTemplate.findById(id, IdempotencyRecord.class);
+      if (record == null) {
+        throw new ResponseStatusException(HttpStatus.CONFLICT,
+                "The original request for this Idempotency-Key failed, retry it");
+      }
+      checkSameRequest(record.getRequestHash(), requestHash);
+      if (record.getResponse() != null) {
+        completed.put(id, new Outcome(requestHash, record.getResponse()));
+        return record.getResponse();
+      }
+      if (leaseExpired(record) && takeOver(id, requestHash)) {
+        log.warn("Took over idempotency key {} from a request that never finished", id);
+        return null;
+      }
+      if (System.nanoTime() > deadline) {
+        throw stillRunning(id);
+      }
+      try {
+        Thread.sleep(pollInterval);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw stillRunning(id);
+      }
+    }
+  }
+
+  private boolean leaseExpired(IdempotencyRecord record) {
+    return record.getCreatedAt() != null
+            && record.getCreatedAt().isBefore(Instant.now().minus(lease));
+  }
+
+  //  atomic, once one waiting instance has refreshed createdAt the record no longer matches for
+  //  the others
+  private boolean takeOver(String id, String requestHash) {
+    Instant now = Instant.now();
+    Query stale = new Query(Criteria.where("_id").is(id)
+            .and("response").is(null)
+            .and("createdAt").lt(now.minus(lease)));
+    Update claim = Update.update("createdAt", now)
+            .set("expiresAt", now.plus(ttl))
+            .set("requestHash", requestHash);
+    return mongoTemplate.findAndModify(stale, claim, IdempotencyRecord.class) != null;
+  }
+
+  private String hash(Object request) {
+    try {
+      byte[] digest = MessageDigest.getInstance("SHA-256")
+              .digest(requestWriter.writeValueAsBytes(request));
+      return HexFormat.of().formatHex(digest);
+    } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+      throw new IllegalStateException("Could not hash the request", e);
+    }
+  }
+
+  //  records written before the hash was stored have none and are trusted
+  private static void checkSameRequest(String storedHash, String requestHash) {
+    if (storedHash != null && !storedHash.equals(requestHash)) {
+      throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
+              "Idempotency-Key was already used for a different request");
+    }
+  }
+
+  private static ResponseStatusException stillRunning(String id) {
+    log.warn("Gave up waiting for the original request of idempotency key {}", id);
+    return new ResponseStatusException(HttpStatus.CONFLICT,
+            "A request with this Idempotency-Key is still in progress");
+  }
+
+  private record Outcome(String requestHash, ActivityResponse response) {
+  }
+
+  private record InFlight(String requestHash, CompletableFuture<ActivityResponse> future) {
+  }
+}
@@ -0,0 +1,41 @@
+package com.ai.based.fitness.activityservice.service;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * Local copy of the keycloak ids USER-SERVICE knows about. It is seeded from USER-SERVICE's
+ * snapshot at startup and kept current by the user registered events, so validating a user is
+ * normally a set lookup instead of an HTTP call.
+ * <p>
+ * Users are never deleted, so an id that is in the set stays valid. An id that is missing may
+ * just not have arrived yet and still needs the remote check.
+ */
+@Component
+@Slf4j
+public class KnownUserRegistry {
+
+  private final Set<String> keycloakIds = ConcurrentHashMap.newKeySet();
+
+  public boolean contains(String keycloakId) {
+    return keycloakId != null && keycloakIds.contains(keycloakId);
+  }
+
+  public void add(String keycloakId) {
+    if (keycloakId != null) {
+      keycloakIds.add(keycloakId);
+    }
+  }
+
+  public void addAll(Collection<String> snapshot) {
+    keycloakIds.addAll(snapshot);
+    log.info("Known users snapshot loaded, {} users known", keycloakIds.size());
+  }
+
+  public int size() {
+    return keycloakIds.size();
+  }
+}
@@ -0,0 +1,71 @@
+package com.ai.based.fitness.activityservice.service;
+
+import com.ai.based.fitness.activityservice.dto.ActivityFilter;
+import com.ai.based.fitness.activityservice.dto.ActivityPage;
+import com.ai.based.fitness.activityservice.dto.ActivityRequest;
+import com.ai.based.fitness.activityservice.dto.ActivityResponse;
+import com.ai.based.fitness.activityservice.model.Activity;
+import com.ai.based.fitness.activityservice.model.OutboxEntry;
+import com.ai.based.fitness.activityservice.repository.ReactiveActivityRepository;
+import java.time.Instant;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Non-blocking counterpart of {@link ActivityService} for the endpoints served by ActivityHandler
+ * with the {@code reactive} profile. Mapping and validation rules are shared with the blocking
+ * service.
+ * <p>
+ * Events still go out through the outbox: the activity is saved with its pending entry and
+ * ActivityOutboxRelay publishes it with BatchingRabbitPublisher, which never blocks on confirms.
+ */
+@Service
+@Profile("reactive")
+@RequiredArgsConstructor
+@Slf4j
+public class ReactiveActivityService {
+
+  private final ReactiveActivityRepository repository;
+  private final UserValidationService userValidationService;
+  private final ActivityService activityService;
+
+  @Value("${activity.page.max-limit:200}")
+  private int maxPageLimit;
+
+  public Mono<ActivityResponse> trackActivity(ActivityRequest request) {
+    return userValidationService.validateUserAsync(request.getUserId())
+            .flatMap(valid -> {
+              if (!valid) {
+                return Mono.error(new RuntimeException("Invalid User: " + request.getUserId()));
+              }
+              Activity activity = activityService.toActivity(request, request.getUserId());
+              activity.setOutbox(OutboxEntry.pending(Instant.now()));
+              return repository.save(activity);
+            })
+//            the rollups are written with the blocking template, keep that off the event loop
+            .flatMap(saved -> Mono.fromRunnable(() -> activityService.updateRollups(List.of(saved)))
+                    .subscribeOn(Schedulers.boundedElastic())
+                    .thenReturn(saved))
+            .map(activityService::mapToResponse);
+  }
+
+  public Mono<ActivityPage> getUserActivities(ActivityFilter filter, int limit, String cursor) {
+    ActivityPageQuery page = ActivityPageQuery.of(limit, cursor, maxPageLimit);
+    return repository.findPage(filter, page.after(), page.fetchSize())
+            .collectList()
+            .map(rows -> page.toPage(rows, activityService::mapToResponse));
+  }
+
+  public Mono<ActivityResponse> getActivityById(String activityId) {
+    return repository.findById(activityId)
+            .map(activityService::mapToResponse)
+            .switchIfEmpty(Mono.error(
+                    () -> new RuntimeException("Activity not found with ID: " + activityId)));
+  }
+}
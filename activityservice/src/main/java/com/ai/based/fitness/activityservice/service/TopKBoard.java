@@ -0,0 +1,59 @@
+package com.ai.based.fitness.activityservice.service;
+
+import com.ai.based.fitness.activityservice.dto.LeaderboardResponse;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Running totals per user, kept sorted in a skip list so that the top N are just the first N
+ * entries: O(log users) per update and O(N) per read, without locking readers out.
+ */
+class TopKBoard {
+
+  private static final Comparator<Score> RANKING = Comparator.comparingLong(Score::total)
+          .reversed()
+          .thenComparing(Score::userId);
+
+  private final Map<String, Long> totals = new ConcurrentHashMap<>();
+  private final NavigableSet<Score> ranking = new ConcurrentSkipListSet<>(RANKING);
+
+  void add(String userId, long amount) {
+    if (amount <= 0) {
+      return;
+    }
+//    compute serializes updates per user, so the ranking never holds two scores for one user
+    totals.compute(userId, (id, previous) -> {
+      long total = previous != null ? previous + amount : amount;
+      if (previous != null) {
+        ranking.remove(new Score(id, previous));
+      }
+      ranking.add(new Score(id, total));
+      return total;
+    });
+  }
+
+  List<LeaderboardResponse.Entry> top(int n) {
+    List<LeaderboardResponse.Entry> entries = new ArrayList<>(n);
+    Iterator<Score> iterator = ranking.iterator();
+    while (entries.size() < n && iterator.hasNext()) {
+      Score score = iterator.next();
+      entries.add(new LeaderboardResponse.Entry(entries.size() + 1, score.userId(),
+              score.total()));
+    }
+    return entries;
+  }
+
+  int size() {
+    return totals.size();
+  }
+
+  private record Score(String userId, long total) {
+
+  }
+}
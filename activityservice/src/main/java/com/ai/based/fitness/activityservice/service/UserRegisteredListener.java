@@ -0,0 +1,41 @@
+package com.ai.based.fitness.activityservice.service;
+
+import com.ai.based.fitness.activityservice.dto.UserRegisteredEvent;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class UserRegisteredListener {
+
+  private final KnownUserRegistry knownUserRegistry;
+  private final WebClient userServiceWebClient;
+
+  @RabbitListener(queues = "#{userRegisteredQueue.name}")
+  public void onUserRegistered(UserRegisteredEvent event) {
+    log.debug("User registered: {}", event.getKeycloakId());
+    knownUserRegistry.add(event.getKeycloakId());
+  }
+
+//  the listener is already running here, so users registered during the load aren't missed
+  @EventListener(ApplicationReadyEvent.class)
+  public void loadSnapshot() {
+    userServiceWebClient
+            .get()
+            .uri("/internal/users/keycloak-ids")
+            .retrieve()
+//            one JSON array, read as String elements it would arrive as a single raw string
+            .bodyToMono(new ParameterizedTypeReference<List<String>>() {})
+            .subscribe(knownUserRegistry::addAll,
+                    e -> log.warn("Could not load known users snapshot, validating remotely: {}",
+                            e.getMessage()));
+  }
+}
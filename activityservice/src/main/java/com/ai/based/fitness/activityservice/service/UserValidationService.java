@@ -8,6 +8,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
 
 @Service
 @RequiredArgsConstructor
@@ -15,23 +16,38 @@ import org.springframework.web.reactive.function.client.WebClientResponseExcepti
 public class UserValidationService {
 
   private final WebClient userServiceWebClient;
+  private final KnownUserRegistry knownUserRegistry;
 
   public boolean validateUser(String userId) {
-    log.info("Calling User Validation API for userId: {}", userId);
-    try {
-      return Boolean.TRUE.equals(userServiceWebClient
-              .get()
-              .uri("/api/users/{userId}/validate", userId)
-              .retrieve()
-              .bodyToMono(Boolean.class)
-              .block());
-    } catch (WebClientResponseException e) {
-      if (e.getStatusCode() == NOT_FOUND) {
-        throw new RuntimeException("User Not Found: " + userId);
-      } else if (e.getStatusCode() == BAD_REQUEST) {
-        throw new RuntimeException("Invalid User ID: " + userId);
-      }
+    return Boolean.TRUE.equals(validateUserAsync(userId).block());
+  }
+
+  //  the same check without blocking, used by the reactive handlers
+  public Mono<Boolean> validateUserAsync(String userId) {
+    if (knownUserRegistry.contains(userId)) {
+      return Mono.just(true);
     }
-    return false;
+
+    log.info("Calling User Validation API for userId: {}", userId);
+    return userServiceWebClient
+            .get()
+            .uri("/api/users/{userId}/validate", userId)
+            .retrieve()
+            .bodyToMono(Boolean.class)
+            .map(Boolean.TRUE::equals)
+            .doOnNext(valid -> {
+              if (valid) {
+                knownUserRegistry.add(userId);
+              }
+            })
+            .onErrorResume(WebClientResponseException.class, e -> {
+              if (e.getStatusCode() == NOT_FOUND) {
+                return Mono.error(new RuntimeException("User Not Found: " + userId));
+              } else if (e.getStatusCode() == BAD_REQUEST) {
+                return Mono.error(new RuntimeException("Invalid User ID: " + userId));
+              }
+              return Mono.just(false);
+            })
+            .defaultIfEmpty(false);
   }
 }
@@ -0,0 +1,138 @@
+package com.ai.based.fitness.activityservice.service;
+
+import com.ai.based.fitness.activityservice.dto.LeaderboardResponse;
+import com.ai.based.fitness.activityservice.model.Activity;
+import com.ai.based.fitness.activityservice.model.ActivityRollup;
+import com.ai.based.fitness.activityservice.model.ActivityType;
+import com.ai.based.fitness.activityservice.model.LeaderboardMetric;
+import com.ai.based.fitness.activityservice.model.RollupPeriod;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * This week's top users by calories and by duration, overall and per activity type, held in
+ * memory and updated as activities are tracked.
+ * <p>
+ * The boards are built from the weekly rollups at startup and again every
+ * {@code resync-interval}, which also folds in activities tracked by other instances. A new week
+ * starts with empty boards, either at the Monday midnight rollover or when the first activity of
+ * the new week comes in.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class WeeklyLeaderboard {
+
+  private final MongoTemplate mongoTemplate;
+
+  private volatile Week current = new Week(RollupPeriod.WEEK.startOf(LocalDate.now()));
+
+  public void record(List<Activity> activities) {
+    for (Activity activity : activities) {
+      LocalDate weekStart = RollupPeriod.WEEK.startOf(activity.getStartTime() != null
+              ? activity.getStartTime().toLocalDate() : LocalDate.now());
+      Week week = weekFor(weekStart);
+      if (week != null) {
+        week.add(activity.getUserId(), activity.getType(), activity.getCaloriesBurned(),
+                activity.getDuration());
+      }
+    }
+  }
+
+  public LeaderboardResponse top(LeaderboardMetric metric, ActivityType type, int limit) {
+    Week week = current;
+    TopKBoard board = week.boards.get(new BoardKey(metric, type));
+    return new LeaderboardResponse(week.start, metric, type,
+            board != null ? board.top(limit) : List.of());
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  @Scheduled(fixedDelayString = "${activity.leaderboard.resync-interval:1m}",
+          initialDelayString = "${activity.leaderboard.resync-interval:1m}")
+  public void rebuild() {
+    LocalDate weekStart = RollupPeriod.WEEK.startOf(LocalDate.now());
+    Week week = new Week(weekStart);
+    Query query = new Query(Criteria.where("period").is(RollupPeriod.WEEK)
+            .and("periodStart").is(weekStart));
+    try (Stream<ActivityRollup> rollups = mongoTemplate.stream(query, ActivityRollup.class)) {
+      rollups.forEach(rollup -> week.add(rollup.getUserId(), rollup.getType(),
+              rollup.getTotalCalories(), rollup.getTotalDuration()));
+    } catch (Exception e) {
+      log.warn("Could not rebuild leaderboard from rollups, keeping the current one: {}",
+              e.getMessage());
+      return;
+    }
+//    activities recorded into the old boards while this ran are in the rollups by the next resync
+    current = week;
+    log.debug("Leaderboard for week of {} rebuilt with {} users", weekStart,
+            week.boards.get(new BoardKey(LeaderboardMetric.CALORIES, null)).size());
+  }
+
+  @Scheduled(cron = "0 0 0 * * MON")
+  public void rollOver() {
+    weekFor(RollupPeriod.WEEK.startOf(LocalDate.now()));
+  }
+
+  //  null for activities of past weeks, which don't count anymore, and of future weeks. Only the
+  //  week of today can start a new board, a start time from the future must not roll it over
+  private Week weekFor(LocalDate weekStart) {
+    Week week = current;
+    if (weekStart.equals(week.start)) {
+      return week;
+    }
+    LocalDate thisWeek = RollupPeriod.WEEK.startOf(LocalDate.now());
+    if (!weekStart.equals(thisWeek)) {
+      return null;
+    }
+    synchronized (this) {
+      if (current.start.isBefore(thisWeek)) {
+        log.info("Leaderboard rolling over to week of {}", thisWeek);
+        current = new Week(thisWeek);
+      }
+      return current.start.equals(weekStart) ? current : null;
+    }
+  }
+
+  private record BoardKey(LeaderboardMetric metric, ActivityType type) {
+
+  }
+
+  private static final class Week {
+
+    private final LocalDate start;
+    private final Map<BoardKey, TopKBoard> boards = new ConcurrentHashMap<>();
+
+    private Week(LocalDate start) {
+      this.start = start;
+      for (LeaderboardMetric metric : LeaderboardMetric.values()) {
+        boards.put(new BoardKey(metric, null), new TopKBoard());
+        for (ActivityType type : ActivityType.values()) {
+          boards.put(new BoardKey(metric, type), new TopKBoard());
+        }
+      }
+    }
+
+    private void add(String userId, ActivityType type, Number calories, Number duration) {
+      long caloriesValue = calories != null ? calories.longValue() : 0;
+      long durationValue = duration != null ? duration.longValue() : 0;
+      boards.get(new BoardKey(LeaderboardMetric.CALORIES, null)).add(userId, caloriesValue);
+      boards.get(new BoardKey(LeaderboardMetric.DURATION, null)).add(userId, durationValue);
+      if (type != null) {
+        boards.get(new BoardKey(LeaderboardMetric.CALORIES, type)).add(userId, caloriesValue);
+        boards.get(new BoardKey(LeaderboardMetric.DURATION, type)).add(userId, durationValue);
+      }
+    }
+  }
+}
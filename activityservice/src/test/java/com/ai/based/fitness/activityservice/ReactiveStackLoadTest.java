@@ -0,0 +1,181 @@
+package com.ai.based.fitness.activityservice;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.ai.based.fitness.activityservice.service.KnownUserRegistry;
+import com.ai.based.fitness.activityservice.service.UserValidationService;
+import com.sun.net.httpserver.HttpServer;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.netty.resources.LoopResources;
+
+/**
+ * Sends a burst of concurrent requests, each needing a user validation call to a USER-SERVICE
+ * stand-in that takes a second, to two front ends: one like the default stack (200 request threads,
+ * Tomcat's default, each blocking on the call) and one like the reactive profile (Netty event loop
+ * chaining the call). Every request uses a new user id, so the known user shortcut never applies.
+ * Peak concurrency and latencies end up in the log, run with -Pbenchmarks. The routes themselves
+ * are covered by ActivityHandlerTest.
+ */
+@Tag("benchmark")
+@Slf4j
+class ReactiveStackLoadTest {
+
+  private static final Duration DEPENDENCY_LATENCY = Duration.ofSeconds(1);
+  private static final int REQUEST_THREADS = 200;
+  private static final int CONCURRENT_REQUESTS = 800;
+
+  private final AtomicInteger userIds = new AtomicInteger();
+  private final ConnectionProvider downstreamPool = ConnectionProvider.builder("user-service")
+          .maxConnections(CONCURRENT_REQUESTS)
+          .pendingAcquireMaxCount(-1)
+          .build();
+  private final ConnectionProvider loadPool = ConnectionProvider.builder("load")
+          .maxConnections(CONCURRENT_REQUESTS)
+          .pendingAcquireMaxCount(-1)
+          .build();
+
+  private DisposableServer slowUserService;
+  private DisposableServer reactiveFront;
+  private HttpServer blockingFront;
+  private ExecutorService requestThreads;
+
+  @AfterEach
+  void tearDown() {
+    if (blockingFront != null) {
+      blockingFront.stop(0);
+      requestThreads.shutdownNow();
+    }
+    if (reactiveFront != null) {
+      reactiveFront.disposeNow();
+    }
+    if (slowUserService != null) {
+      slowUserService.disposeNow();
+    }
+    downstreamPool.dispose();
+    loadPool.dispose();
+  }
+
+  @BeforeEach
+  void quietValidationLog() {
+    // one line per validation call would make the console the bottleneck
+    ((Logger) LoggerFactory.getLogger(UserValidationService.class)).setLevel(Level.WARN);
+  }
+
+  @Test
+  void comparesBlockingAndReactiveFrontEnds() throws Exception {
+    slowUserService = reactor.netty.http.server.HttpServer.create()
+            .port(0)
+            .route(routes -> routes.get("/api/users/{userId}/validate", (request, response) ->
+                    response.header("Content-Type", "application/json")
+                            .sendString(Mono.delay(DEPENDENCY_LATENCY).thenReturn("true"))))
+            .bindNow();
+    UserValidationService validation = new UserValidationService(WebClient.builder()
+            .clientConnector(new ReactorClientHttpConnector(HttpClient.create(downstreamPool)))
+            .baseUrl("http://localhost:" + slowUserService.port())
+            .build(), new KnownUserRegistry());
+
+    AtomicInteger blockingInProgress = new AtomicInteger();
+    AtomicInteger blockingPeak = new AtomicInteger();
+    requestThreads = Executors.newFixedThreadPool(REQUEST_THREADS);
+    blockingFront = HttpServer.create(new InetSocketAddress("localhost", 0), 4096);
+    blockingFront.setExecutor(requestThreads);
+    blockingFront.createContext("/api/activities", exchange -> {
+      track(blockingInProgress, blockingPeak);
+      try {
+        byte[] body = String.valueOf(validation.validateUser(nextUserId()))
+                .getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+          out.write(body);
+        }
+      } finally {
+        blockingInProgress.decrementAndGet();
+      }
+    });
+    blockingFront.start();
+
+    AtomicInteger reactiveInProgress = new AtomicInteger();
+    AtomicInteger reactivePeak = new AtomicInteger();
+    reactiveFront = reactor.netty.http.server.HttpServer.create()
+            .port(0)
+            .route(routes -> routes.post("/api/activities", (request, response) ->
+                    response.sendString(Mono.defer(() -> {
+                      track(reactiveInProgress, reactivePeak);
+                      return validation.validateUserAsync(nextUserId()).map(String::valueOf);
+                    }).doFinally(signal -> reactiveInProgress.decrementAndGet()))))
+            .bindNow();
+
+    // warm-up opens the pooled connections, then the measured bursts
+    burst(blockingFront.getAddress().getPort(), CONCURRENT_REQUESTS);
+    burst(reactiveFront.port(), CONCURRENT_REQUESTS);
+    blockingPeak.set(0);
+    reactivePeak.set(0);
+
+    long[] blocking = burst(blockingFront.getAddress().getPort(), CONCURRENT_REQUESTS);
+    long[] reactive = burst(reactiveFront.port(), CONCURRENT_REQUESTS);
+
+    log.info("{} concurrent requests, dependency latency {}ms", CONCURRENT_REQUESTS,
+            DEPENDENCY_LATENCY.toMillis());
+    log.info("blocking: {} request threads, peak {} requests in progress, p50 {}ms, p99 {}ms",
+            REQUEST_THREADS, blockingPeak.get(), percentile(blocking, 50),
+            percentile(blocking, 99));
+    log.info("reactive: {} event loop threads, peak {} requests in progress, p50 {}ms, p99 {}ms",
+            LoopResources.DEFAULT_IO_WORKER_COUNT, reactivePeak.get(), percentile(reactive, 50),
+            percentile(reactive, 99));
+  }
+
+  private String nextUserId() {
+    return "user-" + userIds.incrementAndGet();
+  }
+
+  private static void track(AtomicInteger inProgress, AtomicInteger peak) {
+    peak.accumulateAndGet(inProgress.incrementAndGet(), Math::max);
+  }
+
+  //  latencies in ms of requests that are all sent at once
+  private long[] burst(int port, int requests) {
+    HttpClient client = HttpClient.create(loadPool).baseUrl("http://localhost:" + port);
+    List<Long> latencies = Flux.range(0, requests)
+            .flatMap(i -> Mono.defer(() -> {
+              long start = System.nanoTime();
+              return client.post().uri("/api/activities")
+                      .responseContent().aggregate().asString()
+                      .map(body -> {
+                        assertEquals("true", body);
+                        return (System.nanoTime() - start) / 1_000_000;
+                      });
+            }), requests)
+            .collectList()
+            .block(Duration.ofMinutes(1));
+    return latencies.stream().mapToLong(Long::longValue).toArray();
+  }
+
+  private static long percentile(long[] latencies, int percentile) {
+    long[] sorted = latencies.clone();
+    Arrays.sort(sorted);
+    return sorted[(int) Math.ceil(percentile / 100.0 * sorted.length) - 1];
+  }
+}
@@ -0,0 +1,60 @@
+package com.ai.based.fitness.activityservice.config;
+
+import static com.ai.based.fitness.activityservice.config.ActivityEventEncodingTest.activity;
+
+import com.ai.based.fitness.activityservice.dto.ActivityEvent;
+import com.ai.based.fitness.activityservice.model.Activity;
+import com.ai.based.fitness.common.amqp.SmileMessageConverter;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.SmartMessageConverter;
+
+/**
+ * Size and serialize/deserialize cost of one activity message: the whole Activity as JSON
+ * (before), the ActivityEvent as JSON, and the ActivityEvent as Smile (after). Only runs with
+ * -Pbenchmarks, the numbers end up in the log.
+ */
+@Tag("benchmark")
+@Slf4j
+class ActivityEventEncodingBenchmarkTest {
+
+  private static final int ITERATIONS = 200_000;
+
+  @Test
+  void jsonEntityVersusSmileEvent() {
+    Activity activity = activity();
+    ActivityEvent event = ActivityEvent.from(activity);
+
+    measure("json, Activity", new Jackson2JsonMessageConverter(), activity);
+    measure("json, ActivityEvent", new Jackson2JsonMessageConverter(), event);
+    measure("smile, ActivityEvent", new SmileMessageConverter(), event);
+  }
+
+  private static void measure(String name, SmartMessageConverter converter, Object payload) {
+    Class<?> type = payload.getClass();
+    Message message = converter.toMessage(payload, new MessageProperties());
+    // first pass warms up the JIT, the second is measured
+    long serializeNanos = 0;
+    long deserializeNanos = 0;
+    for (int pass = 0; pass < 2; pass++) {
+      long started = System.nanoTime();
+      for (int i = 0; i < ITERATIONS; i++) {
+        converter.toMessage(payload, new MessageProperties());
+      }
+      serializeNanos = System.nanoTime() - started;
+
+      started = System.nanoTime();
+      for (int i = 0; i < ITERATIONS; i++) {
+        converter.fromMessage(message, type);
+      }
+      deserializeNanos = System.nanoTime() - started;
+    }
+    log.info("{}: {} bytes, serialize {} ns, deserialize {} ns", name,
+            message.getBody().length, serializeNanos / ITERATIONS,
+            deserializeNanos / ITERATIONS);
+  }
+}
@@ -0,0 +1,67 @@
+package com.ai.based.fitness.activityservice.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.ai.based.fitness.activityservice.dto.ActivityEvent;
+import com.ai.based.fitness.activityservice.model.Activity;
+import com.ai.based.fitness.activityservice.model.ActivityType;
+import com.ai.based.fitness.common.amqp.SmileMessageConverter;
+import java.time.LocalDateTime;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
+
+/**
+ * Size of one activity message: the whole Activity as JSON (before), the ActivityEvent as JSON,
+ * and the ActivityEvent as Smile (after).
+ */
+class ActivityEventEncodingTest {
+
+  @Test
+  void smileEventIsSmallerThanJsonEntity() {
+    Activity activity = activity();
+    ActivityEvent event = ActivityEvent.from(activity);
+
+    int before = bytes(new Jackson2JsonMessageConverter(), activity);
+    int jsonEvent = bytes(new Jackson2JsonMessageConverter(), event);
+    int after = bytes(new SmileMessageConverter(), event);
+
+    assertTrue(after < jsonEvent && jsonEvent < before, after + " < " + jsonEvent + " < " + before);
+  }
+
+  @Test
+  void smileRoundTripKeepsTheEvent() {
+    ActivityEvent event = ActivityEvent.from(activity());
+    SmileMessageConverter converter = new SmileMessageConverter();
+
+    Message message = converter.toMessage(event, new MessageProperties());
+
+    assertEquals(SmileMessageConverter.CONTENT_TYPE,
+            message.getMessageProperties().getContentType());
+    assertEquals(event, converter.fromMessage(message, ActivityEvent.class));
+    assertEquals(event, converter.fromMessage(message));
+  }
+
+  private static int bytes(MessageConverter converter, Object payload) {
+    return converter.toMessage(payload, new MessageProperties()).getBody().length;
+  }
+
+  static Activity activity() {
+    return Activity.builder()
+            .id("6650f1c2a4b3c21d9e8f7a61")
+            .userId("7c9e6679-7425-40de-944b-e07fc1f90ae7")
+            .type(ActivityType.RUNNING)
+            .duration(48)
+            .caloriesBurned(512)
+            .startTime(LocalDateTime.of(2025, 6, 2, 6, 30))
+            .additionalMetric(Map.of("distance", 8.4, "avgHeartRate", 151, "maxHeartRate", 178,
+                    "elevationGain", 64, "cadence", 172))
+            .createdAt(LocalDateTime.of(2025, 6, 2, 7, 21, 4))
+            .updatedAt(LocalDateTime.of(2025, 6, 2, 7, 21, 4))
+            .build();
+  }
+}
@@ -0,0 +1,56 @@
+package com.ai.based.fitness.activityservice.config;
+
+import static com.ai.based.fitness.activityservice.config.BatchingRabbitPublisherTest.activity;
+import static com.ai.based.fitness.activityservice.config.BatchingRabbitPublisherTest.publishAll;
+import static com.ai.based.fitness.activityservice.config.BatchingRabbitPublisherTest.publisher;
+
+import java.time.Duration;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Publishes activity events to {@link StandInBroker}. The baseline sends one message at a time
+ * and waits for its confirm, the way a reliable synchronous publish has to. Only runs with
+ * -Pbenchmarks, the numbers end up in the log.
+ */
+@Tag("benchmark")
+@Slf4j
+class BatchingRabbitPublisherBenchmarkTest {
+
+  private static final Duration ROUND_TRIP = Duration.ofMillis(1);
+  private static final int BASELINE_MESSAGES = 1_000;
+  private static final int PIPELINED_MESSAGES = 50_000;
+
+  private final StandInBroker broker = new StandInBroker(ROUND_TRIP);
+
+  @AfterEach
+  void tearDown() {
+    broker.shutdown();
+  }
+
+  @Test
+  void pipelinedPublishingVersusSynchronousConfirms() {
+    double baseline = messagesPerSecond(BASELINE_MESSAGES, () -> {
+      for (int i = 0; i < BASELINE_MESSAGES; i++) {
+        broker.convertAndSend("fitness.exchange", "activity.tracking", activity(i));
+      }
+    });
+
+    BatchingRabbitPublisher publisher = publisher(broker, 100, 5_000);
+    // warm-up, then the measured run
+    publishAll(publisher, 5_000);
+    double pipelined = messagesPerSecond(PIPELINED_MESSAGES,
+            () -> publishAll(publisher, PIPELINED_MESSAGES));
+
+    log.info("sync confirm per message: {} msg/s, pipelined: {} msg/s ({}x)",
+            Math.round(baseline), Math.round(pipelined), Math.round(pipelined / baseline));
+  }
+
+  private static double messagesPerSecond(int count, Runnable run) {
+    long started = System.nanoTime();
+    run.run();
+    return count / ((System.nanoTime() - started) / 1e9);
+  }
+}
@@ -0,0 +1,83 @@
+package com.ai.based.fitness.activityservice.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.ai.based.fitness.activityservice.model.Activity;
+import com.ai.based.fitness.activityservice.model.ActivityType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class BatchingRabbitPublisherTest {
+
+  private final StandInBroker broker = new StandInBroker(Duration.ofMillis(1));
+
+  @AfterEach
+  void tearDown() {
+    broker.shutdown();
+  }
+
+  @Test
+  void pipelinedMessagesAreAllConfirmed() {
+    BatchingRabbitPublisher publisher = publisher(broker, 100, 500);
+
+    publishAll(publisher, 2_000);
+
+    assertEquals(0, publisher.inFlight());
+    assertEquals(0, publisher.unconfirmed());
+  }
+
+  @Test
+  void nackedMessageFailsItsFuture() {
+    BatchingRabbitPublisher publisher = publisher(broker, 10, 100);
+    broker.nackNext.set(1);
+
+    CompletableFuture<Void> nacked = publisher.publish("fitness.exchange", "activity.tracking",
+            activity(1));
+    CompletableFuture<Void> acked = publisher.publish("fitness.exchange", "activity.tracking",
+            activity(2));
+    publisher.flush();
+
+    ExecutionException error = assertThrows(ExecutionException.class,
+            () -> nacked.get(1, TimeUnit.SECONDS));
+    assertTrue(error.getCause().getMessage().contains("nacked"), error.getCause().getMessage());
+    acked.join();
+    assertEquals(0, publisher.inFlight());
+  }
+
+  static BatchingRabbitPublisher publisher(StandInBroker broker, int flushSize, int maxInFlight) {
+    return new BatchingRabbitPublisher(broker, new SimpleMeterRegistry(), flushSize,
+            Duration.ofMillis(5), maxInFlight, Duration.ofSeconds(5));
+  }
+
+  static void publishAll(BatchingRabbitPublisher publisher, int count) {
+    List<CompletableFuture<Void>> confirms = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      confirms.add(publisher.publish("fitness.exchange", "activity.tracking", activity(i)));
+    }
+    publisher.flush();
+    CompletableFuture.allOf(confirms.toArray(CompletableFuture[]::new)).join();
+  }
+
+  static Activity activity(int i) {
+    return Activity.builder()
+            .id("activity-" + i)
+            .userId("bench-user")
+            .type(ActivityType.RUNNING)
+            .duration(45)
+            .caloriesBurned(420)
+            .startTime(LocalDateTime.of(2025, 1, 1, 6, 0).plusMinutes(i))
+            .additionalMetric(Map.of("distance", 8.2, "avgHeartRate", 148))
+            .build();
+  }
+}
@@ -0,0 +1,53 @@
+package com.ai.based.fitness.activityservice.config;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+
+/**
+ * Broker stand-in for the publisher tests. Serializes every message like the real template.
+ * Without correlation data the send blocks for a round trip (publish, then wait for the confirm);
+ * with it the confirm arrives asynchronously a round trip later.
+ */
+class StandInBroker extends RabbitTemplate {
+
+  private final long roundTripNanos;
+  private final ScheduledExecutorService network = Executors.newSingleThreadScheduledExecutor();
+  final AtomicInteger nackNext = new AtomicInteger();
+
+  StandInBroker(Duration roundTrip) {
+    this.roundTripNanos = roundTrip.toNanos();
+    setMessageConverter(new Jackson2JsonMessageConverter());
+  }
+
+  @Override
+  public <T> T invoke(OperationsCallback<T> action, com.rabbitmq.client.ConfirmCallback acks,
+          com.rabbitmq.client.ConfirmCallback nacks) {
+    return action.doInRabbit(this);
+  }
+
+  @Override
+  public void convertAndSend(String exchange, String routingKey, Object object,
+          CorrelationData correlationData) {
+    getMessageConverter().toMessage(object, new MessageProperties());
+    if (correlationData == null) {
+      LockSupport.parkNanos(roundTripNanos);
+      return;
+    }
+    boolean ack = nackNext.getAndUpdate(n -> Math.max(0, n - 1)) == 0;
+    network.schedule(() -> correlationData.getFuture().complete(
+                    new CorrelationData.Confirm(ack, ack ? null : "stand-in nack")),
+            roundTripNanos, TimeUnit.NANOSECONDS);
+  }
+
+  void shutdown() {
+    network.shutdownNow();
+  }
+}
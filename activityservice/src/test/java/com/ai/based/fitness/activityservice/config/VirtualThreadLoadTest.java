@@ -0,0 +1,224 @@
+package com.ai.based.fitness.activityservice.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.ai.based.fitness.activityservice.controller.ActivityController;
+import com.ai.based.fitness.activityservice.model.Activity;
+import com.ai.based.fitness.activityservice.repository.ActivityRepository;
+import com.ai.based.fitness.activityservice.service.ActivityNdjsonWriter;
+import com.ai.based.fitness.activityservice.service.ActivityRollupService;
+import com.ai.based.fitness.activityservice.service.ActivityService;
+import com.ai.based.fitness.activityservice.service.IdempotencyService;
+import com.ai.based.fitness.activityservice.service.KnownUserRegistry;
+import com.ai.based.fitness.activityservice.service.UserValidationService;
+import com.ai.based.fitness.activityservice.service.WeeklyLeaderboard;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.http.HttpMessageConvertersAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.embedded.EmbeddedWebServerFactoryCustomizerAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.DispatcherServletAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.ServletWebServerFactoryAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.WebMvcAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.ByteBufFlux;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * Runs the real POST /api/activities path (controller, ActivityService, UserValidationService)
+ * on embedded Tomcat, once with its 200 platform request threads and once with
+ * {@code spring.threads.virtual.enabled}. The user-service call goes to a slow stand-in, Mongo is
+ * a mock that takes a few milliseconds per save. Every request uses a new user id, so the known
+ * user shortcut never applies. Throughput and p99 end up in the log, run with -Pbenchmarks.
+ */
+@Tag("benchmark")
+@Slf4j
+class VirtualThreadLoadTest {
+
+  private static final Duration USER_SERVICE_LATENCY = Duration.ofMillis(200);
+  private static final long MONGO_SAVE_MILLIS = 5;
+  private static final int CONCURRENT_REQUESTS = 800;
+  private static final String ACTIVITY =
+          "{\"type\":\"RUNNING\",\"duration\":30,\"caloriesBurned\":300}";
+
+  private final AtomicInteger userIds = new AtomicInteger();
+  private final ConnectionProvider loadPool = ConnectionProvider.builder("load")
+          .maxConnections(CONCURRENT_REQUESTS)
+          .pendingAcquireMaxCount(-1)
+          .build();
+
+  private DisposableServer slowUserService;
+
+  @AfterEach
+  void tearDown() {
+    if (slowUserService != null) {
+      slowUserService.disposeNow();
+    }
+    loadPool.dispose();
+  }
+
+  @Test
+  void comparesPlatformAndVirtualRequestThreads() {
+    slowUserService = HttpServer.create()
+            .port(0)
+            .route(routes -> routes.get("/api/users/{userId}/validate", (request, response) ->
+                    response.header("Content-Type", "application/json")
+                            .sendString(Mono.delay(USER_SERVICE_LATENCY).thenReturn("true"))))
+            .bindNow();
+
+    for (boolean virtual : new boolean[] {false, true}) {
+      try (ConfigurableApplicationContext context = start(virtual)) {
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        // warm-up opens the pooled connections and gets the JIT going
+        burst(port);
+
+        long start = System.nanoTime();
+        long[] latencies = burst(port);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        log.info("{} request threads: {} requests, {} req/s, p50 {}ms, p99 {}ms",
+                virtual ? "virtual" : "platform", latencies.length,
+                Math.round(latencies.length / seconds),
+                percentile(latencies, 50), percentile(latencies, 99));
+      }
+    }
+  }
+
+  private ConfigurableApplicationContext start(boolean virtualThreads) {
+    return new SpringApplicationBuilder(ActivityWriteStack.class)
+            .web(WebApplicationType.SERVLET)
+            .properties(
+                    "server.port=0",
+                    "spring.cloud.config.enabled=false",
+                    "spring.main.banner-mode=off",
+                    "spring.threads.virtual.enabled=" + virtualThreads,
+                    // one line per validation call would make the console the bottleneck
+                    "logging.level.com.ai.based.fitness.activityservice.service=WARN",
+                    "user-service.url=http://localhost:" + slowUserService.port())
+            .run();
+  }
+
+  //  latencies in ms of requests that are all sent at once
+  private long[] burst(int port) {
+    HttpClient client = HttpClient.create(loadPool)
+            .baseUrl("http://localhost:" + port)
+            .headers(headers -> headers.set("Content-Type", "application/json"));
+    List<Long> latencies = Flux.range(0, CONCURRENT_REQUESTS)
+            .flatMap(i -> Mono.defer(() -> {
+              long start = System.nanoTime();
+              return client.headers(headers -> headers.set("X-User-ID", nextUserId()))
+                      .post()
+                      .uri("/api/activities")
+                      .send(ByteBufFlux.fromString(Mono.just(ACTIVITY)))
+                      .responseSingle((response, body) -> {
+                        assertEquals(200, response.status().code());
+                        return Mono.just((System.nanoTime() - start) / 1_000_000);
+                      });
+            }), CONCURRENT_REQUESTS)
+            .collectList()
+            .block(Duration.ofMinutes(2));
+    return latencies.stream().mapToLong(Long::longValue).toArray();
+  }
+
+  private String nextUserId() {
+    return "user-" + userIds.incrementAndGet();
+  }
+
+  private static long percentile(long[] latencies, int percentile) {
+    long[] sorted = latencies.clone();
+    Arrays.sort(sorted);
+    return sorted[(int) Math.ceil(percentile / 100.0 * sorted.length) - 1];
+  }
+
+  /**
+   * The beans behind POST /api/activities, with only the web auto-configuration switched on.
+   */
+  @Configuration
+  @ImportAutoConfiguration({ServletWebServerFactoryAutoConfiguration.class,
+          EmbeddedWebServerFactoryCustomizerAutoConfiguration.class,
+          DispatcherServletAutoConfiguration.class, WebMvcAutoConfiguration.class,
+          HttpMessageConvertersAutoConfiguration.class, JacksonAutoConfiguration.class})
+  @Import({ActivityController.class, ActivityService.class, UserValidationService.class,
+          KnownUserRegistry.class})
+  static class ActivityWriteStack {
+
+    @Bean(destroyMethod = "dispose")
+    ConnectionProvider userServicePool() {
+      return ConnectionProvider.builder("user-service")
+              .maxConnections(CONCURRENT_REQUESTS)
+              .pendingAcquireMaxCount(-1)
+              .build();
+    }
+
+    @Bean
+    WebClient userServiceWebClient(ConnectionProvider userServicePool,
+            @Value("${user-service.url}") String url) {
+      return WebClient.builder()
+              .clientConnector(new ReactorClientHttpConnector(HttpClient.create(userServicePool)))
+              .baseUrl(url)
+              .build();
+    }
+
+    @Bean
+    ActivityRepository activityRepository() {
+      ActivityRepository repository = mock(ActivityRepository.class);
+      when(repository.save(any(Activity.class))).thenAnswer(invocation -> {
+        Thread.sleep(MONGO_SAVE_MILLIS);
+        Activity activity = invocation.getArgument(0);
+        activity.setId(UUID.randomUUID().toString());
+        return activity;
+      });
+      return repository;
+    }
+
+    @Bean
+    MongoTemplate mongoTemplate() {
+      return mock(MongoTemplate.class);
+    }
+
+    @Bean
+    ActivityNdjsonWriter activityNdjsonWriter() {
+      return mock(ActivityNdjsonWriter.class);
+    }
+
+    @Bean
+    ActivityRollupService activityRollupService() {
+      return mock(ActivityRollupService.class);
+    }
+
+    @Bean
+    WeeklyLeaderboard weeklyLeaderboard() {
+      return mock(WeeklyLeaderboard.class);
+    }
+
+    @Bean
+    IdempotencyService idempotencyService() {
+      return mock(IdempotencyService.class);
+    }
+  }
+}
@@ -0,0 +1,152 @@
+package com.ai.based.fitness.activityservice.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import com.ai.based.fitness.activityservice.config.ReactiveWebConfig;
+import com.ai.based.fitness.activityservice.dto.ActivityFilter;
+import com.ai.based.fitness.activityservice.dto.ActivityPage;
+import com.ai.based.fitness.activityservice.dto.ActivityRequest;
+import com.ai.based.fitness.activityservice.dto.ActivityResponse;
+import com.ai.based.fitness.activityservice.model.ActivityType;
+import com.ai.based.fitness.activityservice.service.IdempotencyService;
+import com.ai.based.fitness.activityservice.service.ReactiveActivityService;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+class ActivityHandlerTest {
+
+  private static final String ACTIVITY =
+          "{\"type\":\"RUNNING\",\"duration\":30,\"caloriesBurned\":300}";
+
+  private final ReactiveActivityService activityService = mock(ReactiveActivityService.class);
+  private final IdempotencyService idempotencyService = mock(IdempotencyService.class);
+  private final WebTestClient client = WebTestClient.bindToRouterFunction(
+                  new ReactiveWebConfig().activityRoutes(
+                          new ActivityHandler(activityService, idempotencyService)))
+          .build();
+
+  @Test
+  void postTracksTheActivityForTheHeaderUser() {
+    when(activityService.trackActivity(any(ActivityRequest.class)))
+            .thenReturn(Mono.just(response("activity-1")));
+
+    client.post().uri("/api/activities")
+            .header("X-User-ID", "user-1")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(ACTIVITY)
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody()
+            .jsonPath("$.id").isEqualTo("activity-1");
+
+    ArgumentCaptor<ActivityRequest> request = ArgumentCaptor.forClass(ActivityRequest.class);
+    verify(activityService).trackActivity(request.capture());
+    assertEquals("user-1", request.getValue().getUserId());
+    assertEquals(ActivityType.RUNNING, request.getValue().getType());
+    verifyNoInteractions(idempotencyService);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void postWithIdempotencyKeyGoesThroughTheIdempotencyService() {
+    when(activityService.trackActivity(any(ActivityRequest.class)))
+            .thenReturn(Mono.just(response("activity-1")));
+    when(idempotencyService.execute(eq("user-1"), eq("key-1"), any(ActivityRequest.class),
+            any(Supplier.class)))
+            .thenAnswer(invocation -> invocation.getArgument(3, Supplier.class).get());
+
+    client.post().uri("/api/activities")
+            .header("X-User-ID", "user-1")
+            .header(ActivityController.IDEMPOTENCY_KEY_HEADER, "key-1")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(ACTIVITY)
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody()
+            .jsonPath("$.id").isEqualTo("activity-1");
+  }
+
+  @Test
+  void getListsAPageWithFilterAndNextCursor() {
+    when(activityService.getUserActivities(any(ActivityFilter.class), eq(20), eq("cursor-1")))
+            .thenReturn(Mono.just(new ActivityPage(List.of(response("activity-1")), "cursor-2")));
+
+    client.get().uri("/api/activities?limit=20&cursor=cursor-1&type=RUNNING"
+                    + "&from=2025-06-01T00:00:00&minAvgHeartRate=120&includeMetrics=false")
+            .header("X-User-ID", "user-1")
+            .exchange()
+            .expectStatus().isOk()
+            .expectHeader().valueEquals(ActivityController.NEXT_CURSOR_HEADER, "cursor-2")
+            .expectBody()
+            .jsonPath("$[0].id").isEqualTo("activity-1");
+
+    ArgumentCaptor<ActivityFilter> filter = ArgumentCaptor.forClass(ActivityFilter.class);
+    verify(activityService).getUserActivities(filter.capture(), eq(20), eq("cursor-1"));
+    assertEquals("user-1", filter.getValue().getUserId());
+    assertEquals(ActivityType.RUNNING, filter.getValue().getType());
+    assertEquals(LocalDateTime.parse("2025-06-01T00:00:00"), filter.getValue().getFrom());
+    assertEquals(120, filter.getValue().getMinAvgHeartRate());
+    assertFalse(filter.getValue().isIncludeMetrics());
+  }
+
+  @Test
+  void getWithoutLimitUsesTheDefaultAndLastPageHasNoCursor() {
+    when(activityService.getUserActivities(any(ActivityFilter.class), eq(50), eq(null)))
+            .thenReturn(Mono.just(new ActivityPage(List.of(), null)));
+
+    client.get().uri("/api/activities")
+            .header("X-User-ID", "user-1")
+            .exchange()
+            .expectStatus().isOk()
+            .expectHeader().doesNotExist(ActivityController.NEXT_CURSOR_HEADER)
+            .expectBody().json("[]");
+  }
+
+  @Test
+  void unparseableParametersAndCursorsAreBadRequests() {
+    when(activityService.getUserActivities(any(ActivityFilter.class), eq(50), eq("bad")))
+            .thenThrow(new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor: bad"));
+
+    for (String query : List.of("type=SWIMMING_BACKWARDS", "limit=ten", "minDistance=far",
+            "maxAvgHeartRate=1.5", "from=yesterday", "cursor=bad")) {
+      client.get().uri("/api/activities?" + query)
+              .header("X-User-ID", "user-1")
+              .exchange()
+              .expectStatus().isBadRequest();
+    }
+  }
+
+  @Test
+  void getByIdReturnsTheActivity() {
+    when(activityService.getActivityById("activity-1"))
+            .thenReturn(Mono.just(response("activity-1")));
+
+    client.get().uri("/api/activities/activity-1")
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody()
+            .jsonPath("$.id").isEqualTo("activity-1");
+  }
+
+  private static ActivityResponse response(String id) {
+    ActivityResponse response = new ActivityResponse();
+    response.setId(id);
+    response.setType(ActivityType.RUNNING);
+    return response;
+  }
+}
@@ -0,0 +1,40 @@
+package com.ai.based.fitness.activityservice.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class ActivityMetricsTest {
+
+  @Test
+  void movesWellKnownNumbersIntoTypedFields() {
+    ActivityMetrics.Split split = ActivityMetrics.split(Map.of("distance", 8, "avgHeartRate", 151,
+            "sets", 4L, "mood", "good"));
+
+    assertEquals(ActivityMetrics.builder().distance(8.0).avgHeartRate(151).sets(4).build(),
+            split.metrics());
+    assertEquals(Map.of("mood", "good"), split.extras());
+  }
+
+  @Test
+  void fractionsOfWholeNumberFieldsStayExtras() {
+    ActivityMetrics.Split split = ActivityMetrics.split(Map.of("avgHeartRate", 151.7,
+            "reps", 12.0, "maxHeartRate", 10_000_000_000L));
+
+    assertNull(split.metrics());
+    assertEquals(Map.of("avgHeartRate", 151.7, "reps", 12.0, "maxHeartRate", 10_000_000_000L),
+            split.extras());
+  }
+
+  @Test
+  void otherSpellingsComeBackUnchanged() {
+    Map<String, Object> raw = Map.of("heartRate", 140, "averageHeartRate", 141, "elevation", 64);
+
+    ActivityMetrics.Split split = ActivityMetrics.split(raw);
+
+    assertNull(split.metrics());
+    assertEquals(raw, ActivityMetrics.merge(split.metrics(), split.extras()));
+  }
+}
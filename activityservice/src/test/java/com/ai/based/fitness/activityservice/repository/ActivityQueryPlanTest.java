@@ -0,0 +1,160 @@
+package com.ai.based.fitness.activityservice.repository;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import com.ai.based.fitness.activityservice.dto.ActivityCursor;
+import com.ai.based.fitness.activityservice.dto.ActivityFilter;
+import com.ai.based.fitness.activityservice.model.Activity;
+import com.ai.based.fitness.activityservice.model.ActivityMetrics;
+import com.ai.based.fitness.activityservice.model.ActivityType;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.ConnectionString;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Query;
+
+/**
+ * Runs explain on the activity list and summary queries and checks that every variant is answered
+ * from one of the declared indexes. Needs a MongoDB on localhost:27017 (or MONGODB_URI) and is
+ * skipped without one. Works in a throwaway database that is dropped afterwards.
+ */
+class ActivityQueryPlanTest {
+
+  private static final String USER_ID = "plan-test-user";
+  private static final LocalDateTime BASE = LocalDateTime.of(2025, 1, 1, 6, 0);
+
+  private static MongoClient client;
+  private static MongoTemplate mongoTemplate;
+
+  @BeforeAll
+  static void setUp() {
+    String uri = System.getenv().getOrDefault("MONGODB_URI", "mongodb://localhost:27017");
+    client = MongoClients.create(MongoClientSettings.builder()
+            .applyConnectionString(new ConnectionString(uri))
+            .applyToClusterSettings(cluster ->
+                    cluster.serverSelectionTimeout(1, TimeUnit.SECONDS))
+            .build());
+    String database = "activity_plan_test_" + ObjectId.get().toHexString();
+    try {
+      client.getDatabase(database).runCommand(new Document("ping", 1));
+    } catch (RuntimeException e) {
+      client.close();
+      client = null;
+      assumeTrue(false, "no MongoDB reachable at " + uri);
+    }
+
+    mongoTemplate = new MongoTemplate(client, database);
+    IndexOperations indexOps = mongoTemplate.indexOps(Activity.class);
+    new MongoPersistentEntityIndexResolver(mongoTemplate.getConverter().getMappingContext())
+            .resolveIndexFor(Activity.class)
+            .forEach(indexOps::createIndex);
+
+    List<Activity> activities = new ArrayList<>();
+    ActivityType[] types = ActivityType.values();
+    for (int i = 0; i < 2_000; i++) {
+      activities.add(Activity.builder()
+              .userId(i % 4 == 0 ? USER_ID : "other-user-" + (i % 50))
+              .type(types[i % types.length])
+              .duration(30 + i % 60)
+              .caloriesBurned(200 + i % 300)
+              .startTime(BASE.plusHours(i))
+              .metrics(ActivityMetrics.builder()
+                      .distance(1 + i % 20 * 0.5)
+                      .avgHeartRate(110 + i % 60)
+                      .build())
+              .additionalMetric(Map.of("weather", "clear"))
+              .build());
+    }
+    mongoTemplate.insertAll(activities);
+  }
+
+  @AfterAll
+  static void tearDown() {
+    if (client != null) {
+      mongoTemplate.getDb().drop();
+      client.close();
+    }
+  }
+
+  @Test
+  void firstPageUsesIndex() {
+    assertIndexed(explainFind(filter().build(), null));
+  }
+
+  @Test
+  void nextPageUsesIndex() {
+    ActivityCursor cursor = new ActivityCursor(BASE.plusHours(1_000), ObjectId.get().toHexString());
+    assertIndexed(explainFind(filter().build(), cursor));
+  }
+
+  @Test
+  void timeRangeWithoutMetricsUsesIndex() {
+    assertIndexed(explainFind(filter()
+            .from(BASE.plusDays(7)).to(BASE.plusDays(14)).includeMetrics(false).build(), null));
+  }
+
+  @Test
+  void typeAndTimeRangeUsesIndex() {
+    assertIndexed(explainFind(filter()
+            .type(ActivityType.RUNNING).from(BASE).to(BASE.plusDays(30)).build(), null));
+  }
+
+  @Test
+  void metricRangesUseIndex() {
+    assertIndexed(explainFind(filter().minDistance(5.0).maxDistance(8.0).build(), null));
+    assertIndexed(explainFind(filter().minAvgHeartRate(150).build(), null));
+  }
+
+  @Test
+  void summaryUsesIndex() {
+    assertIndexed(explainSummary(filter().from(BASE).to(BASE.plusDays(30)).build()));
+    assertIndexed(explainSummary(filter().type(ActivityType.CYCLING).build()));
+  }
+
+  private static ActivityFilter.ActivityFilterBuilder filter() {
+    return ActivityFilter.builder().userId(USER_ID);
+  }
+
+  private static Document explainFind(ActivityFilter filter, ActivityCursor cursor) {
+    Query query = ActivityRepositoryCustomImpl.pageQuery(filter, cursor, 51);
+    QueryMapper mapper = new QueryMapper(mongoTemplate.getConverter());
+    MongoPersistentEntity<?> entity = mongoTemplate.getConverter().getMappingContext()
+            .getRequiredPersistentEntity(Activity.class);
+    return mongoTemplate.getCollection(mongoTemplate.getCollectionName(Activity.class))
+            .find(mapper.getMappedObject(query.getQueryObject(), entity))
+            .sort(mapper.getMappedSort(query.getSortObject(), entity))
+            .projection(mapper.getMappedFields(query.getFieldsObject(), entity))
+            .limit(query.getLimit())
+            .explain();
+  }
+
+  private static Document explainSummary(ActivityFilter filter) {
+    return mongoTemplate.aggregate(ActivityRepositoryCustomImpl.summaryAggregation(filter)
+                    .withOptions(AggregationOptions.builder().explain(true).build()),
+            Activity.class, Document.class).getRawResults();
+  }
+
+  private static void assertIndexed(Document explain) {
+    String plan = explain.toJson();
+    assertFalse(plan.contains("COLLSCAN"), plan);
+    assertTrue(plan.contains("IXSCAN"), plan);
+  }
+}
@@ -0,0 +1,64 @@
+package com.ai.based.fitness.activityservice.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.ai.based.fitness.activityservice.dto.ActivityResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Exports a hundred and a million activities through gzip and samples the live heap along the
+ * way. Forces full GCs and takes a while, so it only runs with -Pbenchmarks.
+ */
+@Tag("benchmark")
+@Slf4j
+class ActivityNdjsonWriterBenchmarkTest {
+
+  private final ActivityNdjsonWriter writer = new ActivityNdjsonWriter(new ObjectMapper()
+          .findAndRegisterModules()
+          .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS));
+
+  @Test
+  void heapStaysFlatFromHundredToMillionActivities() throws Exception {
+    long small = peakHeapGrowth(100);
+    long large = peakHeapGrowth(1_000_000);
+
+    log.info("peak heap growth: 100 activities {} KB, 1,000,000 activities {} KB",
+            small / 1024, large / 1024);
+    // a materialized list of a million responses alone would take several hundred MB
+    assertTrue(large < 32 * 1024 * 1024, "heap grew by " + large / 1024 + " KB");
+  }
+
+  private long peakHeapGrowth(int count) throws Exception {
+    MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+    long baseline = liveHeap(memory);
+    long[] peak = {0};
+    int sampleEvery = Math.max(1, count / 10);
+
+    Stream<ActivityResponse> activities = ActivityNdjsonWriterTest.activities(count)
+            .peek(activity -> {
+              long index = Long.parseLong(activity.getId().substring("activity-".length()));
+              if (index % sampleEvery == 0) {
+                peak[0] = Math.max(peak[0], liveHeap(memory) - baseline);
+              }
+            });
+    try (GZIPOutputStream gzip = new GZIPOutputStream(OutputStream.nullOutputStream(), 8192)) {
+      assertEquals(count, writer.write(activities, gzip));
+    }
+    return peak[0];
+  }
+
+  private static long liveHeap(MemoryMXBean memory) {
+    System.gc();
+    return memory.getHeapMemoryUsage().getUsed();
+  }
+}
@@ -0,0 +1,81 @@
+package com.ai.based.fitness.activityservice.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.ai.based.fitness.activityservice.dto.ActivityResponse;
+import com.ai.based.fitness.activityservice.model.ActivityType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+
+class ActivityNdjsonWriterTest {
+
+  private static final LocalDateTime BASE = LocalDateTime.of(2020, 1, 1, 6, 0);
+
+  private final ActivityNdjsonWriter writer = new ActivityNdjsonWriter(new ObjectMapper()
+          .findAndRegisterModules()
+          .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS));
+
+  @Test
+  void writesOneJsonObjectPerLine() throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    long written = writer.write(activities(3), out);
+
+    String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+    assertEquals(3, written);
+    assertEquals(3, lines.length);
+    assertTrue(lines[0].startsWith("{\"id\":\"activity-0\""), lines[0]);
+    assertTrue(lines[2].contains("\"startTime\":\"2020-01-01T08:00:00\""), lines[2]);
+  }
+
+  //  the stream is only pulled as far as has been written, so every flush sees a whole number
+  //  of lines and the count of pulled activities matches it
+  @Test
+  void pullsLazilyAndFlushesEveryThousandActivities() throws Exception {
+    List<Integer> pulledAtFlush = new ArrayList<>();
+    List<Integer> linesAtFlush = new ArrayList<>();
+    int[] pulled = {0};
+    ByteArrayOutputStream out = new ByteArrayOutputStream() {
+      @Override
+      public void flush() {
+        pulledAtFlush.add(pulled[0]);
+        linesAtFlush.add((int) toString(StandardCharsets.UTF_8).chars().filter(c -> c == '\n')
+                .count());
+      }
+    };
+
+    long written = writer.write(activities(2_500).peek(activity -> pulled[0]++), out);
+
+    assertEquals(2_500, written);
+    assertEquals(List.of(1_000, 2_000, 2_500), pulledAtFlush.stream().distinct().toList());
+    assertEquals(pulledAtFlush, linesAtFlush);
+  }
+
+  //  generated lazily, like documents coming off a Mongo cursor
+  static Stream<ActivityResponse> activities(long count) {
+    ActivityType[] types = ActivityType.values();
+    return LongStream.range(0, count).mapToObj(i -> {
+      ActivityResponse response = new ActivityResponse();
+      response.setId("activity-" + i);
+      response.setUserId("export-user");
+      response.setType(types[(int) (i % types.length)]);
+      response.setDuration(30 + (int) (i % 60));
+      response.setCaloriesBurned(200 + (int) (i % 400));
+      response.setStartTime(BASE.plusHours(i));
+      response.setAdditionalMetric(Map.of("distance", i % 21, "avgHeartRate", 120 + i % 50));
+      response.setCreatedAt(BASE.plusHours(i));
+      response.setUpdatedAt(BASE.plusHours(i));
+      return response;
+    });
+  }
+}
@@ -0,0 +1,76 @@
+package com.ai.based.fitness.activityservice.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.ai.based.fitness.activityservice.dto.ActivityCursor;
+import com.ai.based.fitness.activityservice.dto.ActivityPage;
+import com.ai.based.fitness.activityservice.dto.ActivityResponse;
+import com.ai.based.fitness.activityservice.model.Activity;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+class ActivityPageQueryTest {
+
+  private static final LocalDateTime START = LocalDateTime.parse("2025-06-02T06:30:00");
+
+  @Test
+  void limitIsClampedAndCursorDecoded() {
+    ActivityCursor cursor = new ActivityCursor(START, id(9));
+
+    assertEquals(200, ActivityPageQuery.of(1000, null, 200).pageSize());
+    assertEquals(1, ActivityPageQuery.of(0, " ", 200).pageSize());
+    assertNull(ActivityPageQuery.of(10, " ", 200).after());
+    assertEquals(cursor, ActivityPageQuery.of(10, cursor.encode(), 200).after());
+    assertEquals(11, ActivityPageQuery.of(10, null, 200).fetchSize());
+  }
+
+  @Test
+  void extraRowBecomesTheNextCursor() {
+    ActivityPageQuery query = ActivityPageQuery.of(2, null, 200);
+
+    ActivityPage full = query.toPage(activities(3), ActivityPageQueryTest::response);
+    ActivityPage last = query.toPage(activities(2), ActivityPageQueryTest::response);
+
+    assertEquals(List.of(id(0), id(1)),
+            full.getActivities().stream().map(ActivityResponse::getId).toList());
+    assertEquals(new ActivityCursor(START.minusHours(1), id(1)),
+            ActivityCursor.decode(full.getNextCursor()));
+    assertEquals(2, last.getActivities().size());
+    assertNull(last.getNextCursor());
+  }
+
+  @Test
+  void malformedCursorIsABadRequest() {
+    String notAnObjectId = new ActivityCursor(START, "activity-1").encode();
+
+    for (String cursor : List.of("%%%", "bm8tc2VwYXJhdG9y", notAnObjectId)) {
+      ResponseStatusException rejected = assertThrows(ResponseStatusException.class,
+              () -> ActivityPageQuery.of(10, cursor, 200));
+      assertEquals(HttpStatus.BAD_REQUEST, rejected.getStatusCode());
+    }
+  }
+
+  private static String id(int i) {
+    return String.format("%024x", i);
+  }
+
+  //  newest first, like the repository returns them
+  private static List<Activity> activities(int count) {
+    return IntStream.range(0, count)
+            .mapToObj(i -> Activity.builder().id(id(i)).startTime(START.minusHours(i))
+                    .build())
+            .toList();
+  }
+
+  private static ActivityResponse response(Activity activity) {
+    ActivityResponse response = new ActivityResponse();
+    response.setId(activity.getId());
+    return response;
+  }
+}
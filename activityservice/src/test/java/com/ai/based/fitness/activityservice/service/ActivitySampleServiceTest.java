@@ -0,0 +1,114 @@
+package com.ai.based.fitness.activityservice.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.ai.based.fitness.activityservice.dto.SamplePoint;
+import com.ai.based.fitness.activityservice.dto.SampleRequest;
+import com.ai.based.fitness.activityservice.model.Activity;
+import com.ai.based.fitness.activityservice.model.DownsampleMode;
+import com.ai.based.fitness.activityservice.model.SampleField;
+import com.ai.based.fitness.activityservice.repository.ActivityRepository;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+class ActivitySampleServiceTest {
+
+  private static final Instant START = Instant.parse("2025-06-02T06:30:00Z");
+
+  private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+  private final ActivityRepository activityRepository = mock(ActivityRepository.class);
+  private final ActivitySampleService service =
+          new ActivitySampleService(mongoTemplate, activityRepository);
+
+  @BeforeEach
+  void setUp() {
+    ReflectionTestUtils.setField(service, "maxChunkSize", 10);
+    ReflectionTestUtils.setField(service, "maxPoints", 5000);
+    when(activityRepository.findById("activity-1")).thenReturn(Optional.of(
+            Activity.builder().id("activity-1").userId("user-1").build()));
+  }
+
+  @Test
+  void rejectsOversizedChunkAndSamplesWithoutTimestamp() {
+    List<SampleRequest> oversized = Collections.nCopies(11, sample(START));
+
+    assertStatus(HttpStatus.BAD_REQUEST,
+            () -> service.addSamples("user-1", "activity-1", oversized));
+    assertStatus(HttpStatus.BAD_REQUEST,
+            () -> service.addSamples("user-1", "activity-1", List.of(sample(null))));
+  }
+
+  @Test
+  void unknownActivityIsNotFoundAndForeignOneForbidden() {
+    assertStatus(HttpStatus.NOT_FOUND,
+            () -> service.addSamples("user-1", "missing", List.of(sample(START))));
+    assertStatus(HttpStatus.FORBIDDEN,
+            () -> service.addSamples("user-2", "activity-1", List.of(sample(START))));
+    assertStatus(HttpStatus.FORBIDDEN, () -> service.getSamples("user-2", "activity-1",
+            SampleField.HEART_RATE, DownsampleMode.AVERAGE, 100, null, null));
+  }
+
+  //  10 minutes in 4 intervals: 600,000 ms / 4 + 1 = 150,001 ms per bucket
+  @Test
+  void averageGroupsIntoIntervalsFromTheStart() {
+    Instant end = START.plusSeconds(600);
+    when(mongoTemplate.aggregate(any(Aggregation.class), eq("activity_samples"),
+            eq(Document.class))).thenReturn(new AggregationResults<>(List.of(
+                    new Document("_id", START.toEpochMilli()).append("value", 141.5),
+                    new Document("_id", START.toEpochMilli() + 150_001).append("value", 150)),
+            new Document()));
+
+    List<SamplePoint> points = service.getSamples("user-1", "activity-1",
+            SampleField.HEART_RATE, DownsampleMode.AVERAGE, 4, START, end);
+
+    assertEquals(List.of(new SamplePoint(START, 141.5),
+            new SamplePoint(START.plusMillis(150_001), 150.0)), points);
+    ArgumentCaptor<Aggregation> aggregation = ArgumentCaptor.forClass(Aggregation.class);
+    verify(mongoTemplate).aggregate(aggregation.capture(), eq("activity_samples"),
+            eq(Document.class));
+    Document group = aggregation.getValue().toPipeline(Aggregation.DEFAULT_CONTEXT).get(1)
+            .get("$group", Document.class);
+    Document millis = new Document("$toLong", "$timestamp");
+    assertEquals(new Document("$subtract", List.of(millis, new Document("$mod", List.of(
+                    new Document("$subtract", List.of(millis, START.toEpochMilli())),
+                    150_001L)))),
+            group.get("_id"));
+    assertEquals(new Document("$avg", "$hr"), group.get("value"));
+  }
+
+  @Test
+  void averageWithoutSamplesIsEmpty() {
+    assertEquals(List.of(), service.getSamples("user-1", "activity-1", SampleField.CADENCE,
+            DownsampleMode.AVERAGE, 100, null, null));
+  }
+
+  private static SampleRequest sample(Instant timestamp) {
+    SampleRequest sample = new SampleRequest();
+    sample.setTimestamp(timestamp);
+    sample.setHeartRate(140);
+    return sample;
+  }
+
+  private static void assertStatus(HttpStatus status, Runnable call) {
+    ResponseStatusException error = assertThrows(ResponseStatusException.class, call::run);
+    assertEquals(status, error.getStatusCode());
+  }
+}
@@ -0,0 +1,41 @@
+package com.ai.based.fitness.activityservice.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+
+class DownsamplingTest {
+
+  @Test
+  void keepsEverythingWhenThereAreFewerPointsThanRequested() {
+    long[] x = {0, 1000, 2000};
+    double[] y = {120, 130, 125};
+
+    assertArrayEquals(new int[]{0, 1, 2}, Downsampling.lttb(x, y, 3, 500));
+  }
+
+  @Test
+  void reducesAnHourOfSamplesAndKeepsTheSpike() {
+    int length = 36_000;
+    long[] x = new long[length];
+    double[] y = new double[length];
+    for (int i = 0; i < length; i++) {
+      x[i] = i * 100L;
+      y[i] = 140 + 10 * Math.sin(i / 500.0);
+    }
+    y[20_000] = 195;
+
+    int[] kept = Downsampling.lttb(x, y, length, 300);
+
+    assertEquals(300, kept.length);
+    assertEquals(0, kept[0]);
+    assertEquals(length - 1, kept[kept.length - 1]);
+    for (int i = 1; i < kept.length; i++) {
+      assertTrue(kept[i] > kept[i - 1]);
+    }
+    assertTrue(Arrays.stream(kept).anyMatch(index -> index == 20_000));
+  }
+}
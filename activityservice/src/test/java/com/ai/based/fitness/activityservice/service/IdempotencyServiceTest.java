@@ -0,0 +1,184 @@
+package com.ai.based.fitness.activityservice.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.ai.based.fitness.activityservice.dto.ActivityRequest;
+import com.ai.based.fitness.activityservice.dto.ActivityResponse;
+import com.ai.based.fitness.activityservice.model.ActivityType;
+import com.ai.based.fitness.activityservice.model.IdempotencyRecord;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+class IdempotencyServiceTest {
+
+  private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+  private final IdempotencyService service = new IdempotencyService(mongoTemplate,
+          new ObjectMapper().findAndRegisterModules(), Duration.ofHours(24), 1000,
+          Duration.ofSeconds(10), Duration.ofMinutes(5), Duration.ofMillis(50));
+
+  @Test
+  void concurrentDuplicatesShareTheOriginalResponse() throws Exception {
+    AtomicInteger executions = new AtomicInteger();
+    CountDownLatch release = new CountDownLatch(1);
+    ActivityResponse original = new ActivityResponse();
+
+    List<Future<ActivityResponse>> results = new ArrayList<>();
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (int i = 0; i < 20; i++) {
+        results.add(executor.submit(() -> service.execute("user-1", "key-1", request(30), () -> {
+          executions.incrementAndGet();
+          await(release);
+          return original;
+        })));
+      }
+      Thread.sleep(200);
+      release.countDown();
+      for (Future<ActivityResponse> result : results) {
+        assertSame(original, result.get());
+      }
+    }
+
+    assertEquals(1, executions.get());
+    verify(mongoTemplate, times(1)).insert(any(IdempotencyRecord.class));
+  }
+
+  @Test
+  void laterRetriesAreAnsweredFromMemory() {
+    ActivityResponse original = new ActivityResponse();
+    service.execute("user-1", "key-2", request(30), () -> original);
+
+    ActivityResponse retried = service.execute("user-1", "key-2", request(30), () -> {
+      throw new AssertionError("must not run again");
+    });
+
+    assertSame(original, retried);
+    verify(mongoTemplate, times(1)).insert(any(IdempotencyRecord.class));
+  }
+
+  @Test
+  void reusingAKeyForADifferentRequestIsRejected() {
+    service.execute("user-1", "key-3", request(30), ActivityResponse::new);
+
+    ResponseStatusException rejected = assertThrows(ResponseStatusException.class,
+            () -> service.execute("user-1", "key-3", request(45), () -> {
+              throw new AssertionError("must not run");
+            }));
+
+    assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, rejected.getStatusCode());
+  }
+
+  @Test
+  void aDifferentRequestIsRejectedAgainstTheStoredRecord() {
+    when(mongoTemplate.insert(any(IdempotencyRecord.class)))
+            .thenThrow(new DuplicateKeyException("duplicate"));
+    when(mongoTemplate.findById("user-1|key-4", IdempotencyRecord.class))
+            .thenReturn(IdempotencyRecord.builder()
+                    .id("user-1|key-4")
+                    .requestHash("hash of another body")
+                    .response(new ActivityResponse())
+                    .build());
+
+    ResponseStatusException rejected = assertThrows(ResponseStatusException.class,
+            () -> service.execute("user-1", "key-4", request(30), ActivityResponse::new));
+
+    assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, rejected.getStatusCode());
+  }
+
+  @Test
+  void aStaleRecordWithoutResponseIsTakenOver() {
+    when(mongoTemplate.insert(any(IdempotencyRecord.class)))
+            .thenThrow(new DuplicateKeyException("duplicate"));
+    when(mongoTemplate.findById("user-1|key-5", IdempotencyRecord.class))
+            .thenReturn(IdempotencyRecord.builder()
+                    .id("user-1|key-5")
+                    .createdAt(Instant.now().minus(Duration.ofMinutes(6)))
+                    .build());
+    when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+            eq(IdempotencyRecord.class))).thenReturn(new IdempotencyRecord());
+    ActivityResponse response = new ActivityResponse();
+
+    assertSame(response, service.execute("user-1", "key-5", request(30), () -> response));
+    verify(mongoTemplate).upsert(any(Query.class), any(Update.class),
+            eq(IdempotencyRecord.class));
+  }
+
+  @Test
+  void aSlowOriginalWithinItsLeaseIsWaitedFor() {
+    when(mongoTemplate.insert(any(IdempotencyRecord.class)))
+            .thenThrow(new DuplicateKeyException("duplicate"));
+    ActivityResponse original = new ActivityResponse();
+//    past the wait timeout but well within the lease, the original is slow rather than gone
+    IdempotencyRecord running = IdempotencyRecord.builder()
+            .id("user-1|key-6")
+            .createdAt(Instant.now().minus(Duration.ofMinutes(1)))
+            .build();
+    IdempotencyRecord done = IdempotencyRecord.builder()
+            .id("user-1|key-6")
+            .createdAt(running.getCreatedAt())
+            .response(original)
+            .build();
+    when(mongoTemplate.findById("user-1|key-6", IdempotencyRecord.class))
+            .thenReturn(running, done);
+
+    assertSame(original, service.execute("user-1", "key-6", request(30), () -> {
+      throw new AssertionError("must not run");
+    }));
+    verify(mongoTemplate, never()).findAndModify(any(Query.class), any(Update.class),
+            eq(IdempotencyRecord.class));
+    verify(mongoTemplate, never()).upsert(any(Query.class), any(Update.class),
+            eq(IdempotencyRecord.class));
+  }
+
+  @Test
+  void aResponseThatCannotBeStoredIsStillReturnedAndRemembered() {
+    when(mongoTemplate.upsert(any(Query.class), any(Update.class), eq(IdempotencyRecord.class)))
+            .thenThrow(new DataAccessResourceFailureException("mongo is down"));
+    ActivityResponse original = new ActivityResponse();
+
+    assertSame(original, service.execute("user-1", "key-7", request(30), () -> original));
+    assertSame(original, service.execute("user-1", "key-7", request(30), () -> {
+      throw new AssertionError("must not run again");
+    }));
+  }
+
+  private static ActivityRequest request(int duration) {
+    ActivityRequest request = new ActivityRequest();
+    request.setUserId("user-1");
+    request.setType(ActivityType.RUNNING);
+    request.setDuration(duration);
+    return request;
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,36 @@
+package com.ai.based.fitness.activityservice.service;
+
+import java.util.concurrent.ThreadLocalRandom;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Top ten reads from a board with 200,000 users. Only runs with -Pbenchmarks, the time per read
+ * ends up in the log.
+ */
+@Tag("benchmark")
+@Slf4j
+class TopKBoardBenchmarkTest {
+
+  @Test
+  void topTenReadWithManyUsers() {
+    TopKBoard board = new TopKBoard();
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    for (int i = 0; i < 1_000_000; i++) {
+      board.add("user-" + random.nextInt(200_000), random.nextInt(1, 800));
+    }
+
+    for (int i = 0; i < 10_000; i++) {
+      board.top(10);
+    }
+    int reads = 100_000;
+    long started = System.nanoTime();
+    for (int i = 0; i < reads; i++) {
+      board.top(10);
+    }
+    double micros = (System.nanoTime() - started) / 1_000.0 / reads;
+
+    log.info("top 10 of {} users: {} us per read", board.size(), String.format("%.2f", micros));
+  }
+}
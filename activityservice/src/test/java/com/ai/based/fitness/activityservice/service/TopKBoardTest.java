@@ -0,0 +1,27 @@
+package com.ai.based.fitness.activityservice.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.ai.based.fitness.activityservice.dto.LeaderboardResponse;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class TopKBoardTest {
+
+  @Test
+  void ranksUsersByRunningTotal() {
+    TopKBoard board = new TopKBoard();
+    board.add("alice", 300);
+    board.add("bob", 500);
+    board.add("carol", 200);
+    board.add("alice", 400);
+    board.add("carol", 0);
+
+    List<LeaderboardResponse.Entry> top = board.top(2);
+
+    assertEquals(3, board.size());
+    assertEquals(2, top.size());
+    assertEquals(new LeaderboardResponse.Entry(1, "alice", 700), top.get(0));
+    assertEquals(new LeaderboardResponse.Entry(2, "bob", 500), top.get(1));
+  }
+}
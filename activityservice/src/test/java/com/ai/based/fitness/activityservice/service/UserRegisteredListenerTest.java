@@ -0,0 +1,42 @@
+package com.ai.based.fitness.activityservice.service;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+class UserRegisteredListenerTest {
+
+  private DisposableServer userService;
+
+  @AfterEach
+  void tearDown() {
+    if (userService != null) {
+      userService.disposeNow();
+    }
+  }
+
+  @Test
+  void snapshotArrayIsLoadedAsSeparateIds() {
+    userService = HttpServer.create()
+            .port(0)
+            .route(routes -> routes.get("/internal/users/keycloak-ids", (request, response) ->
+                    response.header("Content-Type", "application/json")
+                            .sendString(Mono.just("[\"kc-1\",\"kc-2\",\"kc-3\"]"))))
+            .bindNow();
+    KnownUserRegistry registry = mock(KnownUserRegistry.class);
+    UserRegisteredListener listener = new UserRegisteredListener(registry,
+            WebClient.create("http://localhost:" + userService.port()));
+
+    listener.loadSnapshot();
+
+    verify(registry, timeout(5_000)).addAll(List.of("kc-1", "kc-2", "kc-3"));
+  }
+}
@@ -0,0 +1,55 @@
+package com.ai.based.fitness.activityservice.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+
+import com.ai.based.fitness.activityservice.dto.LeaderboardResponse;
+import com.ai.based.fitness.activityservice.model.Activity;
+import com.ai.based.fitness.activityservice.model.ActivityType;
+import com.ai.based.fitness.activityservice.model.LeaderboardMetric;
+import com.ai.based.fitness.activityservice.model.RollupPeriod;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+class WeeklyLeaderboardTest {
+
+  private final WeeklyLeaderboard leaderboard = new WeeklyLeaderboard(mock(MongoTemplate.class));
+
+  @Test
+  void countsActivitiesOfThisWeekOnly() {
+    LocalDateTime now = LocalDateTime.now();
+    leaderboard.record(List.of(
+            activity("alice", now, 300),
+            activity("bob", now.minusWeeks(1), 900)));
+
+    LeaderboardResponse top = leaderboard.top(LeaderboardMetric.CALORIES, null, 10);
+
+    assertEquals(RollupPeriod.WEEK.startOf(LocalDate.now()), top.getWeekStart());
+    assertEquals(List.of(new LeaderboardResponse.Entry(1, "alice", 300)), top.getEntries());
+  }
+
+  @Test
+  void activityFromAFutureWeekDoesNotRollTheBoardOver() {
+    LocalDateTime now = LocalDateTime.now();
+    leaderboard.record(List.of(activity("alice", now, 300)));
+    leaderboard.record(List.of(activity("bob", now.plusWeeks(2), 900)));
+
+    LeaderboardResponse top = leaderboard.top(LeaderboardMetric.CALORIES, null, 10);
+
+    assertEquals(RollupPeriod.WEEK.startOf(LocalDate.now()), top.getWeekStart());
+    assertEquals(List.of(new LeaderboardResponse.Entry(1, "alice", 300)), top.getEntries());
+  }
+
+  private static Activity activity(String userId, LocalDateTime startTime, int calories) {
+    return Activity.builder()
+            .userId(userId)
+            .type(ActivityType.RUNNING)
+            .duration(30)
+            .caloriesBurned(calories)
+            .startTime(startTime)
+            .build();
+  }
+}
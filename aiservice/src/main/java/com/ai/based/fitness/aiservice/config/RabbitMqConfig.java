@@ -1,9 +1,12 @@
 package com.ai.based.fitness.aiservice.config;
 
+import com.ai.based.fitness.common.amqp.SmileMessageConverter;
 import org.springframework.amqp.core.Binding;
 import org.springframework.amqp.core.BindingBuilder;
 import org.springframework.amqp.core.DirectExchange;
+import org.springframework.amqp.core.MessageProperties;
 import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.support.converter.ContentTypeDelegatingMessageConverter;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.amqp.support.converter.MessageConverter;
 import org.springframework.beans.factory.annotation.Value;
@@ -39,8 +42,16 @@ public class RabbitMqConfig {
   }
 
   @Bean
-  public MessageConverter jsonMessageConverter() {
-//    converts java object to json while sending to queue :) else we will have to manually serialize or deserialize
-    return new Jackson2JsonMessageConverter();
+  public MessageConverter messageConverter(
+          @Value("${rabbitmq.message-format:smile}") String messageFormat) {
+//    incoming messages are decoded by their content type, so json and smile producers can be mixed;
+//    outgoing ones use message-format, json for consumers that don't understand smile yet
+    Jackson2JsonMessageConverter json = new Jackson2JsonMessageConverter();
+    SmileMessageConverter smile = new SmileMessageConverter();
+    ContentTypeDelegatingMessageConverter converter = new ContentTypeDelegatingMessageConverter(
+            "json".equalsIgnoreCase(messageFormat) ? json : smile);
+    converter.addDelegate(MessageProperties.CONTENT_TYPE_JSON, json);
+    converter.addDelegate(SmileMessageConverter.CONTENT_TYPE, smile);
+    return converter;
   }
 }
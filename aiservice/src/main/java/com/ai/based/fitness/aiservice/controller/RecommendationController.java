@@ -9,6 +9,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 @RestController
@@ -18,8 +19,13 @@ public class RecommendationController {
   @Autowired
   private RecommendationService recommendationService;
 
+  //  without limit all of the user's recommendations, with it only the newest ones
   @GetMapping("/user/{userId}")
-  public ResponseEntity<List<Recommendation>> getUserRecommendation(@PathVariable String userId) {
+  public ResponseEntity<List<Recommendation>> getUserRecommendation(@PathVariable String userId,
+          @RequestParam(required = false) Integer limit) {
+    if (limit != null) {
+      return ResponseEntity.ok(recommendationService.getUserRecommendation(userId, limit));
+    }
     return ResponseEntity.ok(recommendationService.getUserRecommendation(userId));
   }
 
@@ -0,0 +1,40 @@
+package com.ai.based.fitness.aiservice.dto;
+
+import com.ai.based.fitness.aiservice.model.Activity;
+import com.fasterxml.jackson.annotation.JsonAlias;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import java.time.LocalDateTime;
+import java.util.Map;
+import lombok.Data;
+
+/**
+ * Activity event as published by activity-service. Version 0 is the old format, which was the
+ * whole activity document with the metrics under {@code additionalMetric}.
+ */
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ActivityEvent {
+
+  private int version;
+  private String id;
+  private String userId;
+  private String type;
+  private Integer duration;
+  private Integer caloriesBurned;
+  private LocalDateTime startTime;
+
+  @JsonAlias("additionalMetric")
+  private Map<String, Object> metrics;
+
+  public Activity toActivity() {
+    return Activity.builder()
+            .id(id)
+            .userId(userId)
+            .type(type)
+            .duration(duration)
+            .caloriesBurned(caloriesBurned)
+            .startTime(startTime)
+            .additionalMetric(metrics)
+            .build();
+  }
+}
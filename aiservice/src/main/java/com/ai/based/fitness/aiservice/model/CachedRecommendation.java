@@ -0,0 +1,51 @@
+package com.ai.based.fitness.aiservice.model;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * The generated part of a recommendation, shared by all activities with the same
+ * ActivityFingerprint.
+ */
+@Document(collection = "recommendation_cache")
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class CachedRecommendation {
+
+  //  hash of the fingerprint
+  @Id
+  private String id;
+  private String fingerprint;
+  private String recommendation;
+  private List<String> improvements;
+  private List<String> suggestions;
+  private List<String> safety;
+  private Instant createdAt;
+
+  //  MongoDB's TTL monitor removes the entry once this has passed
+  @Indexed(expireAfter = "0s")
+  private Instant expiresAt;
+
+  public Recommendation toRecommendation(Activity activity) {
+    return Recommendation.builder()
+            .activityId(activity.getId())
+            .userId(activity.getUserId())
+            .activityType(activity.getType())
+            .recommendation(recommendation)
+            .improvements(improvements)
+            .suggestions(suggestions)
+            .safety(safety)
+            .createdAt(LocalDateTime.now())
+            .build();
+  }
+}
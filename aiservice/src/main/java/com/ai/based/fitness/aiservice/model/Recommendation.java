@@ -8,9 +8,11 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 @Document(collection = "recommendations")
+@CompoundIndex(name = "user_created_at", def = "{'userId': 1, 'createdAt': -1}")
 @Data
 @Builder
 @AllArgsConstructor
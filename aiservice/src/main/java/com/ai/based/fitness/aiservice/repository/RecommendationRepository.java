@@ -3,6 +3,7 @@ package com.ai.based.fitness.aiservice.repository;
 import com.ai.based.fitness.aiservice.model.Recommendation;
 import java.util.List;
 import java.util.Optional;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
@@ -11,5 +12,7 @@ public interface RecommendationRepository extends MongoRepository<Recommendation
 
   List<Recommendation> findByUserId(String userId);
 
+  List<Recommendation> findByUserIdOrderByCreatedAtDesc(String userId, Limit limit);
+
   Optional<Recommendation> findByActivityId(String activityId);
 }
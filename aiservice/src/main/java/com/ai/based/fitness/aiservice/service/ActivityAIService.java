@@ -1,6 +1,7 @@
 package com.ai.based.fitness.aiservice.service;
 
 import com.ai.based.fitness.aiservice.model.Activity;
+import com.ai.based.fitness.aiservice.model.CachedRecommendation;
 import com.ai.based.fitness.aiservice.model.Recommendation;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -9,8 +10,10 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -19,60 +22,84 @@ import org.springframework.stereotype.Service;
 public class ActivityAIService {
 
   private final GeminiService geminiService;
+  private final RecommendationCache recommendationCache;
+
+  //  bucket sizes of the fingerprint, activities that fall into the same buckets share a recommendation
+  @Value("${ai.recommendation-cache.duration-bucket:5}")
+  private int durationBucket;
+
+  @Value("${ai.recommendation-cache.calories-bucket:50}")
+  private int caloriesBucket;
+
+  @Value("${ai.recommendation-cache.metric-significant-digits:2}")
+  private int metricSignificantDigits;
 
   public Recommendation generateRecommendation(Activity activity) {
+    ActivityFingerprint fingerprint = ActivityFingerprint.of(activity, durationBucket,
+            caloriesBucket, metricSignificantDigits);
+    Optional<CachedRecommendation> cached = recommendationCache.get(fingerprint);
+    if (cached.isPresent()) {
+      log.info("Recommendation for activity {} served from cache: {}", activity.getId(),
+              fingerprint.value());
+      return cached.get().toRecommendation(activity);
+    }
+
     String prompt = createPromptForActivity(activity);
     String aiResponse = geminiService.getAnswer(prompt);
     log.info("Response from AI: {}", aiResponse);
-    return processAiResponse(activity, aiResponse);
-  }
-
-  private Recommendation processAiResponse(Activity activity, String aiResponse) {
     try {
-      ObjectMapper mapper = new ObjectMapper();
-      JsonNode rootNode = mapper.readTree(aiResponse);
-      JsonNode textNode = rootNode.path("candidates")
-              .get(0)
-              .path("content")
-              .path("parts")
-              .get(0)
-              .path("text");
-
-      String jsonContent = textNode.asText()
-              .replaceAll("```json\\n", "")
-              .replaceAll("\\n```", "")
-              .trim();
-
-//      log.info("PARSED RESPONSE from AI: {}", jsonContent);
-      JsonNode analysisJson = mapper.readTree(jsonContent);
-      JsonNode analysisNode = analysisJson.path("analysis");
-
-      StringBuilder fullAnalysis = new StringBuilder();
-      addAnalysisSection(fullAnalysis, analysisNode, "overall", "Overall:");
-      addAnalysisSection(fullAnalysis, analysisNode, "pace", "Pace:");
-      addAnalysisSection(fullAnalysis, analysisNode, "heartRate", "Hear Rate:");
-      addAnalysisSection(fullAnalysis, analysisNode, "caloriesBurned", "Calories Burned:");
-
-      List<String> improvements = extractImprovements(analysisJson.path("improvements"));
-      List<String> suggestions = extractSuggestions(analysisJson.path("suggestions"));
-      List<String> safety = extractSafetyGuidelines(analysisJson.path("safety"));
-
-      return Recommendation.builder()
-              .activityId(activity.getId())
-              .userId(activity.getUserId())
-              .activityType(activity.getType())
-              .recommendation(fullAnalysis.toString().trim())
-              .improvements(improvements)
-              .suggestions(suggestions)
-              .safety(safety)
-              .createdAt(LocalDateTime.now())
-              .build();
+      Recommendation recommendation = processAiResponse(activity, aiResponse);
+      recommendationCache.put(fingerprint, recommendation);
+      return recommendation;
     } catch (Exception e) {
-      e.printStackTrace();
+//      the fallback isn't cached, the next similar activity asks again
+      log.error("Could not parse AI response for activity {}", activity.getId(), e);
       return createDefaultRecommendation(activity);
     }
   }
 
+  private Recommendation processAiResponse(Activity activity, String aiResponse)
+          throws Exception {
+    ObjectMapper mapper = new ObjectMapper();
+    JsonNode rootNode = mapper.readTree(aiResponse);
+    JsonNode textNode = rootNode.path("candidates")
+            .get(0)
+            .path("content")
+            .path("parts")
+            .get(0)
+            .path("text");
+
+    String jsonContent = textNode.asText()
+            .replaceAll("```json\\n", "")
+            .replaceAll("\\n```", "")
+            .trim();
+
+//    log.info("PARSED RESPONSE from AI: {}", jsonContent);
+    JsonNode analysisJson = mapper.readTree(jsonContent);
+    JsonNode analysisNode = analysisJson.path("analysis");
+
+    StringBuilder fullAnalysis = new StringBuilder();
+    addAnalysisSection(fullAnalysis, analysisNode, "overall", "Overall:");
+    addAnalysisSection(fullAnalysis, analysisNode, "pace", "Pace:");
+    addAnalysisSection(fullAnalysis, analysisNode, "heartRate", "Hear Rate:");
+    addAnalysisSection(fullAnalysis, analysisNode, "caloriesBurned", "Calories Burned:");
+
+    List<String> improvements = extractImprovements(analysisJson.path("improvements"));
+    List<String> suggestions = extractSuggestions(analysisJson.path("suggestions"));
+    List<String> safety = extractSafetyGuidelines(analysisJson.path("safety"));
+
+    return Recommendation.builder()
+            .activityId(activity.getId())
+            .userId(activity.getUserId())
+            .activityType(activity.getType())
+            .recommendation(fullAnalysis.toString().trim())
+            .improvements(improvements)
+            .suggestions(suggestions)
+            .safety(safety)
+            .createdAt(LocalDateTime.now())
+            .build();
+  }
+
   private Recommendation createDefaultRecommendation(Activity activity) {
     return Recommendation.builder()
             .activityId(activity.getId())
@@ -0,0 +1,77 @@
+package com.ai.based.fitness.aiservice.service;
+
+import com.ai.based.fitness.aiservice.model.Activity;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * What the prompt for an activity boils down to: the type, duration and calories rounded to
+ * buckets, and the metrics with sorted keys and numbers rounded to a few significant digits.
+ * Activities with the same fingerprint get the same recommendation text, e.g. all runs of about 30
+ * minutes and 300 kcal.
+ *
+ * @param value canonical form, e.g. {@code RUNNING|d=30|c=300|avgheartrate=150|distance=5.1}
+ */
+public record ActivityFingerprint(String value) {
+
+  public static ActivityFingerprint of(Activity activity, int durationBucket, int caloriesBucket,
+          int significantDigits) {
+    StringBuilder value = new StringBuilder()
+            .append(activity.getType())
+            .append("|d=").append(bucket(activity.getDuration(), durationBucket))
+            .append("|c=").append(bucket(activity.getCaloriesBurned(), caloriesBucket));
+
+    if (activity.getAdditionalMetric() != null) {
+      Map<String, String> metrics = new TreeMap<>();
+      activity.getAdditionalMetric().forEach((key, metric) -> {
+        String normalized = normalize(metric, significantDigits);
+        if (normalized != null) {
+          metrics.put(key.toLowerCase(Locale.ROOT), normalized);
+        }
+      });
+      metrics.forEach((key, metric) -> value.append('|').append(key).append('=').append(metric));
+    }
+    return new ActivityFingerprint(value.toString());
+  }
+
+  //  SHA-256 of the canonical form, used as the cache key
+  public String hash() {
+    try {
+      return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+              .digest(value.getBytes(StandardCharsets.UTF_8)));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static String bucket(Integer amount, int size) {
+    if (amount == null) {
+      return "-";
+    }
+    return String.valueOf(Math.round((double) amount / size) * size);
+  }
+
+  //  nested values and lists don't make it into the prompt in a comparable form, leave them out
+  private static String normalize(Object metric, int significantDigits) {
+    if (metric instanceof Number number) {
+      if (!Double.isFinite(number.doubleValue())) {
+        return String.valueOf(number);
+      }
+      double rounded = new BigDecimal(number.doubleValue())
+              .round(new MathContext(significantDigits)).doubleValue();
+      return rounded == Math.rint(rounded) ? String.valueOf((long) rounded)
+              : String.valueOf(rounded);
+    }
+    if (metric instanceof String || metric instanceof Boolean) {
+      return metric.toString().trim().toLowerCase(Locale.ROOT);
+    }
+    return null;
+  }
+}
@@ -1,5 +1,6 @@
 package com.ai.based.fitness.aiservice.service;
 
+import com.ai.based.fitness.aiservice.dto.ActivityEvent;
 import com.ai.based.fitness.aiservice.model.Activity;
 import com.ai.based.fitness.aiservice.model.Recommendation;
 import com.ai.based.fitness.aiservice.repository.RecommendationRepository;
@@ -18,7 +19,8 @@ public class ActivityMessageListener {
   private final RecommendationRepository repository;
 
   @RabbitListener(queues = "${rabbitmq.queue.name}")
-  public void processActivity(Activity activity) {
+  public void processActivity(ActivityEvent event) {
+    Activity activity = event.toActivity();
     log.info("Received activity by AI service for processing: {}", activity.getId());
 //    this generates recommendation
 //    log.info("Generated Recommendation: {}", aiService.generateRecommendation(activity));
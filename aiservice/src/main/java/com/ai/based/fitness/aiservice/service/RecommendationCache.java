@@ -0,0 +1,129 @@
+package com.ai.based.fitness.aiservice.service;
+
+import com.ai.based.fitness.aiservice.model.CachedRecommendation;
+import com.ai.based.fitness.aiservice.model.Recommendation;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Optional;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Recommendations by activity fingerprint, in a size bounded in-memory LRU in front of the
+ * {@code recommendation_cache} collection. The collection lets all instances and restarts share
+ * what has already been paid for. Both tiers forget entries after {@code ttl}.
+ * <p>
+ * Metrics: {@code ai.recommendation.cache.requests} by result (memory, mongo, miss),
+ * {@code ai.recommendation.cache.hit.ratio} and {@code ai.recommendation.cost.saved} in dollars,
+ * counting {@code cost-per-call} for every LLM call a hit avoided.
+ */
+@Component
+@Slf4j
+public class RecommendationCache {
+
+  private final MongoTemplate mongoTemplate;
+  private final Duration ttl;
+  private final double costPerCall;
+  private final Cache<String, CachedRecommendation> memory;
+  private final Counter memoryHits;
+  private final Counter mongoHits;
+  private final Counter misses;
+  private final Counter dollarsSaved;
+
+  public RecommendationCache(MongoTemplate mongoTemplate, MeterRegistry meterRegistry,
+          @Value("${ai.recommendation-cache.max-size:10000}") long maxSize,
+          @Value("${ai.recommendation-cache.ttl:30d}") Duration ttl,
+          @Value("${ai.recommendation-cache.cost-per-call:0.002}") double costPerCall) {
+    this.mongoTemplate = mongoTemplate;
+    this.ttl = ttl;
+    this.costPerCall = costPerCall;
+    this.memory = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(ttl)
+            .recordStats()
+            .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, memory, "ai.recommendation.cache.memory",
+            Collections.emptyList());
+
+    this.memoryHits = requests(meterRegistry, "memory");
+    this.mongoHits = requests(meterRegistry, "mongo");
+    this.misses = requests(meterRegistry, "miss");
+    this.dollarsSaved = Counter.builder("ai.recommendation.cost.saved")
+            .description("Estimated LLM spend avoided by cache hits")
+            .baseUnit("dollars")
+            .register(meterRegistry);
+    Gauge.builder("ai.recommendation.cache.hit.ratio", this, RecommendationCache::hitRatio)
+            .description("Share of recommendations served without calling the LLM")
+            .register(meterRegistry);
+  }
+
+  public Optional<CachedRecommendation> get(ActivityFingerprint fingerprint) {
+    String key = fingerprint.hash();
+    CachedRecommendation cached = memory.getIfPresent(key);
+    if (cached != null) {
+      hit(memoryHits);
+      return Optional.of(cached);
+    }
+
+    try {
+      cached = mongoTemplate.findById(key, CachedRecommendation.class);
+    } catch (DataAccessException e) {
+      log.warn("Recommendation cache lookup failed, calling the LLM: {}", e.getMessage());
+    }
+//    the TTL monitor runs about once a minute, so expired entries can still be read for a moment
+    if (cached != null && cached.getExpiresAt().isAfter(Instant.now())) {
+      memory.put(key, cached);
+      hit(mongoHits);
+      return Optional.of(cached);
+    }
+    misses.increment();
+    return Optional.empty();
+  }
+
+  public void put(ActivityFingerprint fingerprint, Recommendation recommendation) {
+    Instant now = Instant.now();
+    CachedRecommendation cached = CachedRecommendation.builder()
+            .id(fingerprint.hash())
+            .fingerprint(fingerprint.value())
+            .recommendation(recommendation.getRecommendation())
+            .improvements(recommendation.getImprovements())
+            .suggestions(recommendation.getSuggestions())
+            .safety(recommendation.getSafety())
+            .createdAt(now)
+            .expiresAt(now.plus(ttl))
+            .build();
+    memory.put(cached.getId(), cached);
+    try {
+      mongoTemplate.save(cached);
+    } catch (DataAccessException e) {
+      log.warn("Could not persist cached recommendation: {}", e.getMessage());
+    }
+  }
+
+  private void hit(Counter tier) {
+    tier.increment();
+    dollarsSaved.increment(costPerCall);
+  }
+
+  private double hitRatio() {
+    double hits = memoryHits.count() + mongoHits.count();
+    double total = hits + misses.count();
+    return total == 0 ? 0 : hits / total;
+  }
+
+  private static Counter requests(MeterRegistry meterRegistry, String result) {
+    return Counter.builder("ai.recommendation.cache.requests")
+            .tag("result", result)
+            .register(meterRegistry);
+  }
+}
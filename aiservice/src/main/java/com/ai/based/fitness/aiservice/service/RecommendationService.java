@@ -3,6 +3,7 @@ package com.ai.based.fitness.aiservice.service;
 import com.ai.based.fitness.aiservice.model.Recommendation;
 import com.ai.based.fitness.aiservice.repository.RecommendationRepository;
 import java.util.List;
+import org.springframework.data.domain.Limit;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
@@ -16,6 +17,11 @@ public class RecommendationService {
     return repository.findByUserId(userId);
   }
 
+  //  newest first, what the dashboard needs next to its page of newest activities
+  public List<Recommendation> getUserRecommendation(String userId, int limit) {
+    return repository.findByUserIdOrderByCreatedAtDesc(userId, Limit.of(Math.max(1, limit)));
+  }
+
   public Recommendation getActivityRecommendation(String activityId) {
     return repository.findByActivityId(activityId).orElseThrow(
             () -> new RuntimeException("No Recommendation Found for this activity: " + activityId));
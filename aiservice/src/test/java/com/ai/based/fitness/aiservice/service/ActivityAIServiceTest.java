@@ -0,0 +1,70 @@
+package com.ai.based.fitness.aiservice.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.ai.based.fitness.aiservice.model.Activity;
+import com.ai.based.fitness.aiservice.model.CachedRecommendation;
+import com.ai.based.fitness.aiservice.model.Recommendation;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class ActivityAIServiceTest {
+
+  private final GeminiService geminiService = mock(GeminiService.class);
+  private final RecommendationCache recommendationCache = mock(RecommendationCache.class);
+  private final ActivityAIService service =
+          new ActivityAIService(geminiService, recommendationCache);
+
+  @BeforeEach
+  void setUp() {
+    ReflectionTestUtils.setField(service, "durationBucket", 5);
+    ReflectionTestUtils.setField(service, "caloriesBucket", 50);
+    ReflectionTestUtils.setField(service, "metricSignificantDigits", 2);
+    when(recommendationCache.get(any(ActivityFingerprint.class))).thenReturn(Optional.empty());
+  }
+
+  @Test
+  void cachedRecommendationSkipsTheLlm() {
+    when(recommendationCache.get(any(ActivityFingerprint.class))).thenReturn(Optional.of(
+            CachedRecommendation.builder().recommendation("Keep going").build()));
+
+    Recommendation recommendation = service.generateRecommendation(activity());
+
+    assertEquals("Keep going", recommendation.getRecommendation());
+    assertEquals("activity-1", recommendation.getActivityId());
+    verify(geminiService, never()).getAnswer(any());
+  }
+
+  @Test
+  void parsedAnswerIsCached() {
+    when(geminiService.getAnswer(any())).thenReturn("{\"candidates\":[{\"content\":{\"parts\":"
+            + "[{\"text\":\"{\\\"analysis\\\":{\\\"overall\\\":\\\"Solid\\\"}}\"}]}}]}");
+
+    Recommendation recommendation = service.generateRecommendation(activity());
+
+    assertEquals("Overall:Solid", recommendation.getRecommendation());
+    verify(recommendationCache).put(any(ActivityFingerprint.class), any(Recommendation.class));
+  }
+
+  @Test
+  void fallbackIsNeverCached() {
+    when(geminiService.getAnswer(any())).thenReturn("not json");
+
+    Recommendation recommendation = service.generateRecommendation(activity());
+
+    assertEquals("Unable to generate detailed analysis", recommendation.getRecommendation());
+    verify(recommendationCache, never()).put(any(), any());
+  }
+
+  private static Activity activity() {
+    return Activity.builder().id("activity-1").userId("user-1").type("RUNNING").duration(30)
+            .caloriesBurned(300).build();
+  }
+}
@@ -0,0 +1,70 @@
+package com.ai.based.fitness.aiservice.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import com.ai.based.fitness.aiservice.model.Activity;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class ActivityFingerprintTest {
+
+  @Test
+  void durationAndCaloriesAreRoundedToTheNearestBucket() {
+    assertEquals("RUNNING|d=30|c=300", fingerprint(activity(32, 276, null)).value());
+    assertEquals("RUNNING|d=35|c=350", fingerprint(activity(33, 325, null)).value());
+    assertEquals("RUNNING|d=-|c=-", fingerprint(activity(null, null, null)).value());
+  }
+
+  @Test
+  void numbersKeepTwoSignificantDigits() {
+    Map<String, Object> metrics = new LinkedHashMap<>();
+    metrics.put("distance", 5.123);
+    metrics.put("avgHeartRate", 153);
+    metrics.put("pace", 0.04567);
+
+    assertEquals("RUNNING|d=30|c=300|avgheartrate=150|distance=5.1|pace=0.046",
+            fingerprint(activity(30, 300, metrics)).value());
+  }
+
+  @Test
+  void keysAreSortedAndCaseInsensitiveAndNestedValuesLeftOut() {
+    Map<String, Object> first = new LinkedHashMap<>();
+    first.put("Distance", 5.1);
+    first.put("surface", " Trail ");
+    first.put("laps", List.of(1, 2));
+    Map<String, Object> second = new LinkedHashMap<>();
+    second.put("surface", "trail");
+    second.put("distance", 5.14);
+
+    ActivityFingerprint fingerprint = fingerprint(activity(30, 300, first));
+
+    assertEquals("RUNNING|d=30|c=300|distance=5.1|surface=trail", fingerprint.value());
+    assertEquals(fingerprint, fingerprint(activity(29, 310, second)));
+    assertEquals(fingerprint.hash(), fingerprint(activity(29, 310, second)).hash());
+  }
+
+  @Test
+  void differentTypesNeverShareAFingerprint() {
+    Activity cycling = activity(30, 300, null);
+    cycling.setType("CYCLING");
+
+    assertNotEquals(fingerprint(activity(30, 300, null)).hash(), fingerprint(cycling).hash());
+  }
+
+  private static ActivityFingerprint fingerprint(Activity activity) {
+    return ActivityFingerprint.of(activity, 5, 50, 2);
+  }
+
+  private static Activity activity(Integer duration, Integer calories,
+          Map<String, Object> metrics) {
+    return Activity.builder()
+            .type("RUNNING")
+            .duration(duration)
+            .caloriesBurned(calories)
+            .additionalMetric(metrics)
+            .build();
+  }
+}
@@ -0,0 +1,117 @@
+package com.ai.based.fitness.aiservice.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.ai.based.fitness.aiservice.model.CachedRecommendation;
+import com.ai.based.fitness.aiservice.model.Recommendation;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+class RecommendationCacheTest {
+
+  private static final ActivityFingerprint FINGERPRINT =
+          new ActivityFingerprint("RUNNING|d=30|c=300");
+
+  private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+  private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  @Test
+  void putIsServedFromMemory() {
+    RecommendationCache cache = cache(Duration.ofDays(30));
+    cache.put(FINGERPRINT, recommendation());
+
+    assertEquals("Keep going", cache.get(FINGERPRINT).orElseThrow().getRecommendation());
+    verify(mongoTemplate).save(any(CachedRecommendation.class));
+    verify(mongoTemplate, times(0)).findById(any(), any());
+    assertEquals(1, requests("memory"));
+    assertEquals(1.0, meterRegistry.get("ai.recommendation.cache.hit.ratio").gauge().value());
+  }
+
+  @Test
+  void mongoHitIsKeptInMemoryAfterwards() {
+    RecommendationCache cache = cache(Duration.ofDays(30));
+    when(mongoTemplate.findById(FINGERPRINT.hash(), CachedRecommendation.class))
+            .thenReturn(cached(Instant.now().plus(Duration.ofDays(1))));
+
+    assertTrue(cache.get(FINGERPRINT).isPresent());
+    assertTrue(cache.get(FINGERPRINT).isPresent());
+
+    verify(mongoTemplate, times(1)).findById(FINGERPRINT.hash(), CachedRecommendation.class);
+    assertEquals(1, requests("mongo"));
+    assertEquals(1, requests("memory"));
+  }
+
+  @Test
+  void expiredMongoEntryIsAMiss() {
+    RecommendationCache cache = cache(Duration.ofDays(30));
+    when(mongoTemplate.findById(FINGERPRINT.hash(), CachedRecommendation.class))
+            .thenReturn(cached(Instant.now().minusSeconds(1)));
+
+    assertTrue(cache.get(FINGERPRINT).isEmpty());
+    assertTrue(cache.get(FINGERPRINT).isEmpty());
+
+    verify(mongoTemplate, times(2)).findById(FINGERPRINT.hash(), CachedRecommendation.class);
+    assertEquals(2, requests("miss"));
+    assertEquals(0.0, meterRegistry.get("ai.recommendation.cost.saved").counter().count());
+  }
+
+  @Test
+  void entriesAreForgottenAfterTheTtl() {
+    RecommendationCache cache = cache(Duration.ZERO);
+    cache.put(FINGERPRINT, recommendation());
+
+    assertTrue(cache.get(FINGERPRINT).isEmpty());
+    assertEquals(1, requests("miss"));
+  }
+
+  @Test
+  void failingMongoIsAMissAndPutStillFillsMemory() {
+    RecommendationCache cache = cache(Duration.ofDays(30));
+    when(mongoTemplate.findById(FINGERPRINT.hash(), CachedRecommendation.class))
+            .thenThrow(new DataAccessResourceFailureException("mongo is down"));
+    when(mongoTemplate.save(any(CachedRecommendation.class)))
+            .thenThrow(new DataAccessResourceFailureException("mongo is down"));
+
+    assertTrue(cache.get(FINGERPRINT).isEmpty());
+    cache.put(FINGERPRINT, recommendation());
+    assertTrue(cache.get(FINGERPRINT).isPresent());
+  }
+
+  private RecommendationCache cache(Duration ttl) {
+    return new RecommendationCache(mongoTemplate, meterRegistry, 100, ttl, 0.002);
+  }
+
+  private double requests(String result) {
+    return meterRegistry.get("ai.recommendation.cache.requests").tag("result", result)
+            .counter().count();
+  }
+
+  private static Recommendation recommendation() {
+    return Recommendation.builder()
+            .activityId("activity-1")
+            .recommendation("Keep going")
+            .improvements(List.of("Pace: even splits"))
+            .build();
+  }
+
+  private static CachedRecommendation cached(Instant expiresAt) {
+    return CachedRecommendation.builder()
+            .id(FINGERPRINT.hash())
+            .fingerprint(FINGERPRINT.value())
+            .recommendation("Keep going")
+            .expiresAt(expiresAt)
+            .build();
+  }
+}
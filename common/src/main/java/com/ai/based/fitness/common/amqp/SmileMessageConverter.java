@@ -0,0 +1,94 @@
+package com.ai.based.fitness.common.amqp;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.AbstractMessageConverter;
+import org.springframework.amqp.support.converter.DefaultJackson2JavaTypeMapper;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.amqp.support.converter.SmartMessageConverter;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Jackson's binary JSON format: same data model as JSON, but smaller and cheaper to write and
+ * parse. Messages carry the {@code application/x-jackson-smile} content type and the same type
+ * headers as {@code Jackson2JsonMessageConverter}, so listeners keep binding by parameter type.
+ * <p>
+ * Not built on AbstractJackson2MessageConverter, that one decodes through a String whenever the
+ * message has a content encoding, which a binary format can't do.
+ * <p>
+ * Without a listener parameter type to bind to, the type header decides the class. Anyone who
+ * can publish sets that header, so only classes under {@value #TRUSTED_PACKAGE} are accepted.
+ */
+public class SmileMessageConverter extends AbstractMessageConverter
+        implements SmartMessageConverter {
+
+  public static final String CONTENT_TYPE = "application/x-jackson-smile";
+  public static final String TRUSTED_PACKAGE = "com.ai.based.fitness";
+
+  private final ObjectMapper objectMapper = SmileMapper.builder()
+          .findAndAddModules()
+          .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+          .build();
+  private final DefaultJackson2JavaTypeMapper typeMapper = new DefaultJackson2JavaTypeMapper();
+
+  @Override
+  protected Message createMessage(Object object, MessageProperties messageProperties) {
+    try {
+      byte[] body = objectMapper.writeValueAsBytes(object);
+      messageProperties.setContentType(CONTENT_TYPE);
+      messageProperties.setContentLength(body.length);
+      typeMapper.fromJavaType(objectMapper.constructType(object.getClass()), messageProperties);
+      return new Message(body, messageProperties);
+    } catch (IOException e) {
+      throw new MessageConversionException("Failed to convert message content to smile", e);
+    }
+  }
+
+  @Override
+  public Object fromMessage(Message message) {
+    return fromMessage(message, null);
+  }
+
+  @Override
+  public Object fromMessage(Message message, Object conversionHint) {
+    JavaType type;
+    if (conversionHint instanceof ParameterizedTypeReference<?> reference) {
+      type = objectMapper.constructType(reference.getType());
+    } else if (conversionHint instanceof Type hint) {
+      type = objectMapper.constructType(hint);
+    } else {
+//      the listener's parameter type when there is one, otherwise the type header
+      type = headerType(message.getMessageProperties());
+    }
+    try {
+      return objectMapper.readValue(message.getBody(), type);
+    } catch (IOException e) {
+      throw new MessageConversionException("Failed to convert smile message content", e);
+    }
+  }
+
+  //  the type mapper only trusts exact package names, our message types live in sub-packages
+  private JavaType headerType(MessageProperties messageProperties) {
+    Object classId = messageProperties.getHeaders().get(typeMapper.getClassIdFieldName());
+    if (classId == null) {
+      return typeMapper.toJavaType(messageProperties);
+    }
+    if (!classId.toString().startsWith(TRUSTED_PACKAGE + ".")) {
+      throw new MessageConversionException(
+              "Message type " + classId + " is not in the trusted package " + TRUSTED_PACKAGE);
+    }
+    try {
+      return objectMapper.constructType(
+              ClassUtils.forName(classId.toString(), ClassUtils.getDefaultClassLoader()));
+    } catch (ClassNotFoundException e) {
+      throw new MessageConversionException("Unknown message type " + classId, e);
+    }
+  }
+}
@@ -0,0 +1,39 @@
+package com.ai.based.fitness.common.http;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Connection pool and timeout settings for the WebClients calling other services, keyed by the
+ * Eureka service id, e.g. {@code downstream.http-client.services.USER-SERVICE.max-connections}.
+ * Services that aren't listed get the defaults below.
+ */
+@Data
+@ConfigurationProperties(prefix = "downstream.http-client")
+public class DownstreamHttpClientProperties {
+
+  private Map<String, Pool> services = new LinkedHashMap<>();
+
+  public Pool forService(String serviceId) {
+    return services.getOrDefault(serviceId, new Pool());
+  }
+
+  @Data
+  public static class Pool {
+
+    private int maxConnections = 100;
+    private int pendingAcquireMaxCount = 500;
+    private Duration pendingAcquireTimeout = Duration.ofSeconds(5);
+    private Duration maxIdleTime = Duration.ofSeconds(30);
+    private Duration maxLifeTime = Duration.ofMinutes(5);
+    private Duration evictInBackground = Duration.ofSeconds(30);
+    private Duration connectTimeout = Duration.ofSeconds(2);
+    private Duration responseTimeout = Duration.ofSeconds(5);
+
+    //  HTTP/2 over cleartext with prior knowledge, the service has to run with server.http2.enabled
+    private boolean h2c = false;
+  }
+}
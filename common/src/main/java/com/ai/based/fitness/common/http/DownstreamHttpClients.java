@@ -0,0 +1,61 @@
+package com.ai.based.fitness.common.http;
+
+import io.netty.channel.ChannelOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * Builds one Reactor Netty connection pool per downstream service from
+ * {@link DownstreamHttpClientProperties}. Pool metrics are published as
+ * {@code reactor.netty.connection.provider.*} tagged with the service id. The pools are closed
+ * with the application context.
+ * <p>
+ * Services {@code @Import} it and enable {@link DownstreamHttpClientProperties}.
+ */
+@Component
+@RequiredArgsConstructor
+public class DownstreamHttpClients implements DisposableBean {
+
+  private final DownstreamHttpClientProperties properties;
+  private final Map<String, ConnectionProvider> providers = new ConcurrentHashMap<>();
+
+  public ClientHttpConnector connector(String serviceId) {
+    DownstreamHttpClientProperties.Pool pool = properties.forService(serviceId);
+    HttpClient httpClient = HttpClient.create(providers.computeIfAbsent(serviceId,
+                    id -> connectionProvider(id, pool)))
+            .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) pool.getConnectTimeout().toMillis())
+            .responseTimeout(pool.getResponseTimeout());
+    if (pool.isH2c()) {
+//      a handful of connections multiplex all in-flight requests instead of one connection each
+      httpClient = httpClient.protocol(HttpProtocol.H2C);
+    }
+    return new ReactorClientHttpConnector(httpClient);
+  }
+
+  @Override
+  public void destroy() {
+    providers.values().forEach(ConnectionProvider::dispose);
+    providers.clear();
+  }
+
+  private ConnectionProvider connectionProvider(String serviceId,
+          DownstreamHttpClientProperties.Pool pool) {
+    return ConnectionProvider.builder(serviceId)
+            .maxConnections(pool.getMaxConnections())
+            .pendingAcquireMaxCount(pool.getPendingAcquireMaxCount())
+            .pendingAcquireTimeout(pool.getPendingAcquireTimeout())
+            .maxIdleTime(pool.getMaxIdleTime())
+            .maxLifeTime(pool.getMaxLifeTime())
+            .evictInBackground(pool.getEvictInBackground())
+            .metrics(true)
+            .build();
+  }
+}
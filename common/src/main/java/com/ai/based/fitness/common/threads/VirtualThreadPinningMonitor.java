@@ -0,0 +1,76 @@
+package com.ai.based.fitness.common.threads;
+
+import java.time.Duration;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+/**
+ * Logs a warning whenever a virtual thread stays pinned to its carrier thread for longer than
+ * {@code virtual-threads.pinning-threshold}, e.g. while blocking inside a {@code synchronized}
+ * block. Pinned virtual threads take a carrier away from every other request, so these are the
+ * places to fix first. Only active when {@code spring.threads.virtual.enabled} is set, which the
+ * shared {@code virtual-threads} profile does. Services {@code @Import} it.
+ */
+@Component
+@Slf4j
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadPinningMonitor implements SmartLifecycle {
+
+  private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+  private static final int LOGGED_FRAMES = 8;
+
+  private final Duration threshold;
+  private RecordingStream recordingStream;
+
+  public VirtualThreadPinningMonitor(
+          @Value("${virtual-threads.pinning-threshold:20ms}") Duration threshold) {
+    this.threshold = threshold;
+  }
+
+  @Override
+  public synchronized void start() {
+    recordingStream = new RecordingStream();
+    recordingStream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+    recordingStream.onEvent(PINNED_EVENT, this::logPinned);
+    recordingStream.startAsync();
+    log.info("Watching for virtual threads pinned longer than {}", threshold);
+  }
+
+  private void logPinned(RecordedEvent event) {
+    StringBuilder frames = new StringBuilder();
+    RecordedStackTrace stackTrace = event.getStackTrace();
+    if (stackTrace != null) {
+      stackTrace.getFrames().stream()
+              .limit(LOGGED_FRAMES)
+              .map(RecordedFrame::getMethod)
+              .forEach(method -> frames.append("\n\tat ")
+                      .append(method.getType().getName())
+                      .append('.')
+                      .append(method.getName()));
+    }
+    String thread = event.getThread() != null ? event.getThread().getJavaName() : "unknown";
+    log.warn("Virtual thread pinned its carrier for {} ms on {}{}",
+            event.getDuration().toMillis(), thread, frames);
+  }
+
+  @Override
+  public synchronized void stop() {
+    if (recordingStream != null) {
+      recordingStream.close();
+      recordingStream = null;
+    }
+  }
+
+  @Override
+  public synchronized boolean isRunning() {
+    return recordingStream != null;
+  }
+}
@@ -0,0 +1,51 @@
+package com.ai.based.fitness.common.amqp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDateTime;
+import java.util.Date;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.MessageConversionException;
+
+class SmileMessageConverterTest {
+
+  private final SmileMessageConverter converter = new SmileMessageConverter();
+
+  @Test
+  void roundTripsByTypeHeader() {
+    Event event = new Event("activity-1", 42, LocalDateTime.of(2025, 6, 2, 6, 30));
+
+    Message message = converter.toMessage(event, new MessageProperties());
+
+    assertEquals(SmileMessageConverter.CONTENT_TYPE,
+            message.getMessageProperties().getContentType());
+    assertEquals(event, converter.fromMessage(message));
+  }
+
+  @Test
+  void roundTripsByListenerType() {
+    Event event = new Event("activity-1", 42, null);
+
+    Message message = converter.toMessage(event, new MessageProperties());
+    message.getMessageProperties().getHeaders().remove("__TypeId__");
+
+    assertEquals(event, converter.fromMessage(message, Event.class));
+  }
+
+  @Test
+  void rejectsTypeHeaderOutsideTheTrustedPackage() {
+    Message message = converter.toMessage(new Date(0), new MessageProperties());
+
+    MessageConversionException error = assertThrows(MessageConversionException.class,
+            () -> converter.fromMessage(message));
+    assertEquals("Message type java.util.Date is not in the trusted package "
+            + SmileMessageConverter.TRUSTED_PACKAGE, error.getMessage());
+  }
+
+  record Event(String activityId, int calories, LocalDateTime startTime) {
+
+  }
+}
@@ -0,0 +1,39 @@
+package com.ai.based.fitness.common.http;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.netty.resources.ConnectionProvider;
+
+class DownstreamHttpClientsTest {
+
+  @Test
+  void disposesItsPoolsWithTheContext() {
+    DownstreamHttpClientProperties properties = new DownstreamHttpClientProperties();
+    properties.getServices().put("USER-SERVICE", new DownstreamHttpClientProperties.Pool());
+
+    AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+    context.registerBean(DownstreamHttpClientProperties.class, () -> properties);
+    context.register(DownstreamHttpClients.class);
+    context.refresh();
+
+    DownstreamHttpClients clients = context.getBean(DownstreamHttpClients.class);
+    clients.connector("USER-SERVICE");
+    clients.connector("USER-SERVICE");
+    clients.connector("AI-SERVICE");
+    @SuppressWarnings("unchecked")
+    Map<String, ConnectionProvider> providers =
+            (Map<String, ConnectionProvider>) ReflectionTestUtils.getField(clients, "providers");
+    ConnectionProvider userService = providers.get("USER-SERVICE");
+    assertEquals(2, providers.size());
+    assertEquals(100, userService.maxConnections());
+
+    context.close();
+
+    assertTrue(userService.isDisposed());
+  }
+}
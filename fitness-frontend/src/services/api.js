@@ -48,6 +48,9 @@ export const getActivityRecommendation = (activityId) => api.get(`/recommendatio
 
 export const getUserRecommendations = (userId) => api.get(`/recommendations/user/${userId}`);
 
+// Activities joined with their recommendations by the gateway in a single call
+export const getDashboard = () => api.get('/dashboard');
+
 // Combined call for activity detail with recommendation
 export const getActivityDetail = async (id) => {
     try {
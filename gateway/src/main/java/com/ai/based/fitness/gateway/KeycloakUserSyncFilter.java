@@ -1,12 +1,14 @@
 package com.ai.based.fitness.gateway;
 
-import com.ai.based.fitness.gateway.user.RegisterRequest;
-import com.ai.based.fitness.gateway.user.UserService;
-import com.nimbusds.jwt.JWTClaimsSet;
-import com.nimbusds.jwt.SignedJWT;
+import com.ai.based.fitness.gateway.metrics.RequestTimings;
+import com.ai.based.fitness.gateway.metrics.RequestTimings.Stage;
+import com.ai.based.fitness.gateway.user.KeycloakUserSyncService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.stereotype.Component;
 import org.springframework.web.server.ServerWebExchange;
 import org.springframework.web.server.WebFilter;
@@ -18,61 +20,39 @@ import reactor.core.publisher.Mono;
 @RequiredArgsConstructor
 public class KeycloakUserSyncFilter implements WebFilter {
 
-  private final UserService userService;
+  private final KeycloakUserSyncService userSyncService;
 
   @Override
   public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
-    String userId = exchange.getRequest().getHeaders().getFirst("X-User-ID");
-    String token = exchange.getRequest().getHeaders().getFirst("Authorization");
-    RegisterRequest registerRequest = getUserDetails(token);
+//    the token was already decoded and verified by the resource server, so reuse that Jwt
+    return ReactiveSecurityContextHolder.getContext()
+            .map(SecurityContext::getAuthentication)
+            .filter(authentication -> authentication.getPrincipal() instanceof Jwt)
+            .map(authentication -> {
+              RequestTimings.start(exchange, Stage.USER_SYNC);
+              ServerWebExchange synced = syncUser(exchange, (Jwt) authentication.getPrincipal());
+              RequestTimings.stop(exchange, Stage.USER_SYNC);
+              return synced;
+            })
+            .defaultIfEmpty(exchange)
+            .flatMap(chain::filter);
+  }
 
+  private ServerWebExchange syncUser(ServerWebExchange exchange, Jwt jwt) {
+    String userId = exchange.getRequest().getHeaders().getFirst("X-User-ID");
     if (userId == null) {
-      userId = registerRequest.getKeycloakId();
+      userId = jwt.getSubject();
     }
-
-    if (userId != null && token != null) {
-      String finalUserId = userId;
-      return userService.validateUser(userId)
-              .flatMap(exist -> {
-                if (!exist) {
-                  // Register user
-                  if (registerRequest != null) {
-                    return userService.registerUser(registerRequest)
-                            .then(Mono.empty());
-                  } else {
-                    return Mono.empty();
-                  }
-                } else {
-                  log.info("User already exists, Skipping sync");
-                  return Mono.empty();
-                }
-              })
-              .then(Mono.defer(() -> {
-                ServerHttpRequest mutatedRequest = exchange.getRequest().mutate()
-                        .header("X-User-ID", finalUserId)
-                        .build();
-                return chain.filter(exchange.mutate().request(mutatedRequest).build());
-              }));
+    if (userId == null) {
+      return exchange;
     }
-    return chain.filter(exchange);
-  }
 
-  private RegisterRequest getUserDetails(String token) {
-    try {
-      String tokenWithoutBearer = token.replace("Bearer ", "").trim();
-      SignedJWT signedJWT = SignedJWT.parse(tokenWithoutBearer);
-      JWTClaimsSet claims = signedJWT.getJWTClaimsSet();
+//    provisioning runs in the background, the request doesn't wait for USER-SERVICE
+    userSyncService.syncUser(userId, jwt);
 
-      RegisterRequest registerRequest = new RegisterRequest();
-      registerRequest.setEmail(claims.getStringClaim("email"));
-      registerRequest.setKeycloakId(claims.getStringClaim("sub"));
-      registerRequest.setPassword("dummy@123123");
-      registerRequest.setFirstName(claims.getStringClaim("given_name"));
-      registerRequest.setLastName(claims.getStringClaim("family_name"));
-      return registerRequest;
-    } catch (Exception e) {
-      e.printStackTrace();
-      return null;
-    }
+    ServerHttpRequest mutatedRequest = exchange.getRequest().mutate()
+            .header("X-User-ID", userId)
+            .build();
+    return exchange.mutate().request(mutatedRequest).build();
   }
 }
@@ -38,7 +38,9 @@ public class SecurityConfig {
     CorsConfiguration config = new CorsConfiguration();
     config.setAllowedOrigins(List.of("http://localhost:5173"));
     config.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS"));
-    config.setAllowedHeaders(Arrays.asList("Authorization", "Content-Type", "X-User-ID"));
+    config.setAllowedHeaders(Arrays.asList("Authorization", "Content-Type", "X-User-ID",
+            "X-Debug-Timing", "Idempotency-Key"));
+    config.setExposedHeaders(List.of("Server-Timing", "X-Next-Cursor"));
     config.setAllowCredentials(true);
     UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
     source.registerCorsConfiguration("/api/**", config);
@@ -0,0 +1,253 @@
+package com.ai.based.fitness.gateway.cache;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Caches successful GET responses per user and route, and answers {@code If-None-Match} with a 304
+ * when the client already has the current body.
+ * <p>
+ * Only complete 200 responses with a Content-Length up to {@code max-entry-bytes} and without
+ * Content-Encoding or Content-Disposition are cached. Their body is copied while it streams through
+ * to the client, so the first response goes out unchanged and without an ETag, and replays carry
+ * its headers (e.g. X-Next-Cursor) minus hop-by-hop ones. The Accept-Encoding of the request is part
+ * of the key.
+ * <p>
+ * The cache is bounded by the total size of the cached bodies rather than by entry count. Any
+ * successful non-GET request a user sends through a route using this filter (e.g. POST
+ * /api/activities) drops all of that user's cached responses, since recommendations are derived
+ * from activities. The keys are indexed by user for that, so it doesn't scan the whole cache.
+ * Use it in api-gateway.yml as {@code - ConditionalGetCache}.
+ */
+@Component
+@Slf4j
+public class ConditionalGetCacheGatewayFilterFactory extends AbstractGatewayFilterFactory<Object> {
+
+  //  hop-by-hop headers, plus the ones written fresh for every replay
+  private static final Set<String> NOT_REPLAYED_HEADERS = Set.of("connection", "keep-alive",
+          "proxy-authenticate", "proxy-authorization", "te", "trailer", "transfer-encoding",
+          "upgrade", "content-length", "etag", "date");
+
+  private final Cache<CacheKey, CachedResponse> cache;
+  //  cached keys by user, kept in step with the cache inside its per-key compute and eviction
+  private final ConcurrentMap<String, Set<CacheKey>> keysByUser = new ConcurrentHashMap<>();
+  private final long maxEntryBytes;
+
+  public ConditionalGetCacheGatewayFilterFactory(MeterRegistry meterRegistry,
+          @Value("${gateway.response-cache.max-size-bytes:67108864}") long maxSizeBytes,
+          @Value("${gateway.response-cache.max-entry-bytes:1048576}") long maxEntryBytes,
+          @Value("${gateway.response-cache.ttl:30s}") Duration ttl) {
+    this.maxEntryBytes = maxEntryBytes;
+    this.cache = Caffeine.newBuilder()
+            .maximumWeight(maxSizeBytes)
+            .weigher((CacheKey key, CachedResponse response) -> response.weight())
+            .expireAfterWrite(ttl)
+            .evictionListener((CacheKey key, CachedResponse response, RemovalCause cause) ->
+                    unindex(key))
+            .recordStats()
+            .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, cache, "gateway.response.cache",
+            Collections.emptyList());
+  }
+
+  @Override
+  public GatewayFilter apply(Object config) {
+//    has to run before NettyWriteResponseFilter so that it writes through our decorated response
+    return new OrderedGatewayFilter((exchange, chain) -> {
+      ServerHttpRequest request = exchange.getRequest();
+      String userId = request.getHeaders().getFirst("X-User-ID");
+      if (userId == null) {
+        return chain.filter(exchange);
+      }
+
+//      rejected, failed or cancelled requests changed nothing
+      if (request.getMethod() != HttpMethod.GET) {
+        return chain.filter(exchange)
+                .doOnSuccess(done -> {
+                  HttpStatusCode status = exchange.getResponse().getStatusCode();
+                  if (status != null && status.is2xxSuccessful()) {
+                    invalidateUser(userId);
+                  }
+                });
+      }
+
+      Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+      CacheKey key = new CacheKey(userId, route != null ? route.getId() : "",
+              request.getURI().getRawPath(), request.getURI().getRawQuery(),
+              String.join(",", request.getHeaders().getOrEmpty(HttpHeaders.ACCEPT_ENCODING)));
+
+      CachedResponse cached = cache.getIfPresent(key);
+      if (cached != null) {
+        return writeCached(exchange, cached);
+      }
+      return chain.filter(exchange.mutate()
+              .response(new CachingResponseDecorator(exchange.getResponse(), key))
+              .build());
+    }, NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1);
+  }
+
+  public void invalidateUser(String userId) {
+    Set<CacheKey> keys = keysByUser.remove(userId);
+    if (keys != null) {
+      cache.invalidateAll(keys);
+    }
+  }
+
+  private void store(CacheKey key, CachedResponse response) {
+    cache.asMap().compute(key, (k, previous) -> {
+      keysByUser.compute(k.userId(), (userId, keys) -> {
+        Set<CacheKey> indexed = keys != null ? keys : ConcurrentHashMap.newKeySet();
+        indexed.add(k);
+        return indexed;
+      });
+      return response;
+    });
+  }
+
+  private void unindex(CacheKey key) {
+    keysByUser.computeIfPresent(key.userId(), (userId, keys) -> {
+      keys.remove(key);
+      return keys.isEmpty() ? null : keys;
+    });
+  }
+
+  private Mono<Void> writeCached(ServerWebExchange exchange, CachedResponse cached) {
+    ServerHttpResponse response = exchange.getResponse();
+    response.getHeaders().setETag(cached.etag());
+    if (isNotModified(exchange.getRequest(), cached.etag())) {
+      response.setStatusCode(HttpStatus.NOT_MODIFIED);
+      return response.setComplete();
+    }
+    response.setStatusCode(HttpStatus.OK);
+    response.getHeaders().putAll(cached.headers());
+    response.getHeaders().setContentLength(cached.body().length);
+    return response.writeWith(Mono.just(response.bufferFactory().wrap(cached.body())));
+  }
+
+  private static boolean isNotModified(ServerHttpRequest request, String etag) {
+    List<String> ifNoneMatch = request.getHeaders().getIfNoneMatch();
+    for (String candidate : ifNoneMatch) {
+      if (candidate.equals("*") || candidate.equals(etag) || candidate.equals("W/" + etag)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private class CachingResponseDecorator extends ServerHttpResponseDecorator {
+
+    private final CacheKey key;
+
+    CachingResponseDecorator(ServerHttpResponse delegate, CacheKey key) {
+      super(delegate);
+      this.key = key;
+    }
+
+    //  streaming bodies are written with writeAndFlushWith, which isn't overridden and never cached
+    @Override
+    public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+      HttpHeaders headers = getDelegate().getHeaders();
+      long contentLength = headers.getContentLength();
+      if (getStatusCode() == null || getStatusCode().value() != HttpStatus.OK.value()
+              || contentLength < 0 || contentLength > maxEntryBytes
+              || headers.containsKey(HttpHeaders.CONTENT_ENCODING)
+              || headers.containsKey(HttpHeaders.CONTENT_DISPOSITION)) {
+        return super.writeWith(body);
+      }
+
+      BodyCopy copy = new BodyCopy((int) contentLength);
+      return super.writeWith(Flux.from(body).doOnNext(copy::append))
+              .doOnSuccess(done -> {
+                byte[] bytes = copy.complete();
+                if (bytes != null) {
+                  String etag = "\"" + DigestUtils.md5DigestAsHex(bytes) + "\"";
+                  store(key, new CachedResponse(bytes, etag, replayedHeaders(headers)));
+                }
+              });
+    }
+  }
+
+  //  copies a body while it passes through, gives up as soon as it's larger than announced
+  private static class BodyCopy {
+
+    private final byte[] bytes;
+    private int length;
+    private boolean overflow;
+
+    BodyCopy(int contentLength) {
+      this.bytes = new byte[contentLength];
+    }
+
+    void append(DataBuffer buffer) {
+      int readable = buffer.readableByteCount();
+      if (overflow || length + readable > bytes.length) {
+        overflow = true;
+        return;
+      }
+      int position = buffer.readPosition();
+      buffer.read(bytes, length, readable);
+      buffer.readPosition(position);
+      length += readable;
+    }
+
+    byte[] complete() {
+      return overflow || length != bytes.length ? null : bytes;
+    }
+  }
+
+  private static HttpHeaders replayedHeaders(HttpHeaders headers) {
+    HttpHeaders replayed = new HttpHeaders();
+    headers.forEach((name, values) -> {
+      if (!NOT_REPLAYED_HEADERS.contains(name.toLowerCase(Locale.ROOT))) {
+        replayed.put(name, List.copyOf(values));
+      }
+    });
+    return HttpHeaders.readOnlyHttpHeaders(replayed);
+  }
+
+  private record CacheKey(String userId, String routeId, String path, String query,
+          String acceptEncoding) {
+
+  }
+
+  private record CachedResponse(byte[] body, String etag, HttpHeaders headers) {
+
+    // rough per-entry overhead on top of the body so lots of tiny bodies still count
+    int weight() {
+      return body.length + 256;
+    }
+  }
+}
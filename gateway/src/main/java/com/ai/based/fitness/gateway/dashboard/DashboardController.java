@@ -0,0 +1,21 @@
+package com.ai.based.fitness.gateway.dashboard;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("/api/dashboard")
+@RequiredArgsConstructor
+public class DashboardController {
+
+  private final DashboardService dashboardService;
+
+  @GetMapping
+  public Mono<DashboardResponse> getDashboard(@RequestHeader("X-User-ID") String userId) {
+    return dashboardService.getDashboard(userId);
+  }
+}
@@ -0,0 +1,32 @@
+package com.ai.based.fitness.gateway.dashboard;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class DashboardResponse {
+
+  private List<Entry> activities;
+
+  //  set when the user has more activities than the dashboard shows, pass it as cursor to
+  //  /api/activities for the next page
+  private String nextActivitiesCursor;
+
+  //  true when one of the services didn't answer in time, the names are listed in unavailable
+  private boolean partial;
+  private List<String> unavailable;
+
+  @Data
+  @AllArgsConstructor
+  @NoArgsConstructor
+  public static class Entry {
+
+    private JsonNode activity;
+    private JsonNode recommendation;
+  }
+}
@@ -0,0 +1,125 @@
+package com.ai.based.fitness.gateway.dashboard;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+/**
+ * Builds the dashboard in one round trip for the client: activities from ACTIVITY-SERVICE and
+ * recommendations from AI-SERVICE are fetched concurrently and joined on the activity id.
+ * <p>
+ * Each call has its own timeout. If one of them fails or is too slow the other half is still
+ * returned and the response is flagged as partial.
+ * <p>
+ * Only the newest {@code gateway.dashboard.activities-limit} activities are shown, and as many of
+ * the newest recommendations are fetched to go with them. When there are more activities,
+ * ACTIVITY-SERVICE's X-Next-Cursor is passed on as {@code nextActivitiesCursor}.
+ */
+@Service
+@Slf4j
+public class DashboardService {
+
+  private static final String ACTIVITIES = "activities";
+  private static final String RECOMMENDATIONS = "recommendations";
+  private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+  private final WebClient activityServiceWebClient;
+  private final WebClient aiServiceWebClient;
+  private final int activitiesLimit;
+  private final Duration activitiesTimeout;
+  private final Duration recommendationsTimeout;
+
+  public DashboardService(WebClient activityServiceWebClient, WebClient aiServiceWebClient,
+          @Value("${gateway.dashboard.activities-limit:50}") int activitiesLimit,
+          @Value("${gateway.dashboard.activities-timeout:2s}") Duration activitiesTimeout,
+          @Value("${gateway.dashboard.recommendations-timeout:2s}") Duration recommendationsTimeout) {
+    this.activityServiceWebClient = activityServiceWebClient;
+    this.aiServiceWebClient = aiServiceWebClient;
+    this.activitiesLimit = activitiesLimit;
+    this.activitiesTimeout = activitiesTimeout;
+    this.recommendationsTimeout = recommendationsTimeout;
+  }
+
+  public Mono<DashboardResponse> getDashboard(String userId) {
+    Mono<Optional<ActivityPage>> activities = leg(ACTIVITIES, userId, activityServiceWebClient
+            .get()
+            .uri(uri -> uri.path("/api/activities")
+                    .queryParam("limit", activitiesLimit)
+                    .build())
+            .header("X-User-ID", userId)
+            .retrieve()
+            .toEntityList(JsonNode.class)
+            .map(page -> new ActivityPage(page.getBody() != null ? page.getBody() : List.of(),
+                    page.getHeaders().getFirst(NEXT_CURSOR_HEADER)))
+            .timeout(activitiesTimeout));
+
+    Mono<Optional<List<JsonNode>>> recommendations = leg(RECOMMENDATIONS, userId,
+            aiServiceWebClient
+                    .get()
+                    .uri(uri -> uri.path("/api/recommendations/user/{userId}")
+                            .queryParam("limit", activitiesLimit)
+                            .build(userId))
+                    .header("X-User-ID", userId)
+                    .retrieve()
+                    .bodyToFlux(JsonNode.class)
+//                    in case an older AI-SERVICE ignores the limit
+                    .take(activitiesLimit)
+                    .collectList()
+                    .timeout(recommendationsTimeout));
+
+    return Mono.zip(activities, recommendations)
+            .map(legs -> merge(legs.getT1(), legs.getT2()));
+  }
+
+  private <T> Mono<Optional<T>> leg(String name, String userId, Mono<T> call) {
+    return call
+            .map(Optional::of)
+            .onErrorResume(e -> {
+              log.warn("Dashboard: {} unavailable for userId {}: {}", name, userId, e.toString());
+              return Mono.just(Optional.empty());
+            });
+  }
+
+  private DashboardResponse merge(Optional<ActivityPage> activities,
+          Optional<List<JsonNode>> recommendations) {
+    List<String> unavailable = new ArrayList<>();
+    if (activities.isEmpty()) {
+      unavailable.add(ACTIVITIES);
+    }
+    if (recommendations.isEmpty()) {
+      unavailable.add(RECOMMENDATIONS);
+    }
+
+    Map<String, JsonNode> recommendationByActivity = new HashMap<>();
+    recommendations.orElse(List.of()).forEach(recommendation ->
+            recommendationByActivity.put(recommendation.path("activityId").asText(),
+                    recommendation));
+
+    List<DashboardResponse.Entry> entries = new ArrayList<>();
+    if (activities.isPresent()) {
+      for (JsonNode activity : activities.get().activities()) {
+        entries.add(new DashboardResponse.Entry(activity,
+                recommendationByActivity.get(activity.path("id").asText())));
+      }
+    } else {
+//      without the activities we can still show what the AI said about them
+      recommendationByActivity.values()
+              .forEach(recommendation -> entries.add(
+                      new DashboardResponse.Entry(null, recommendation)));
+    }
+    String nextCursor = activities.map(ActivityPage::nextCursor).orElse(null);
+    return new DashboardResponse(entries, nextCursor, !unavailable.isEmpty(), unavailable);
+  }
+
+  private record ActivityPage(List<JsonNode> activities, String nextCursor) {
+  }
+}
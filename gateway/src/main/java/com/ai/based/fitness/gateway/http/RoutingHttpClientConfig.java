@@ -0,0 +1,22 @@
+package com.ai.based.fitness.gateway.http;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.gateway.config.HttpClientCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.netty.http.HttpProtocol;
+
+/**
+ * Pool size and timeouts of the client the gateway routes with come from
+ * {@code spring.cloud.gateway.httpclient.*}. Switching that client to h2c is opt-in, and only
+ * works once every routed service runs with {@code server.http2.enabled}.
+ */
+@Configuration
+public class RoutingHttpClientConfig {
+
+  @Bean
+  @ConditionalOnProperty(name = "gateway.routing.h2c", havingValue = "true")
+  public HttpClientCustomizer h2cRoutingHttpClientCustomizer() {
+    return httpClient -> httpClient.protocol(HttpProtocol.H2C);
+  }
+}
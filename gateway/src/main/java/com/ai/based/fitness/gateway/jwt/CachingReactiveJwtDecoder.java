@@ -0,0 +1,63 @@
+package com.ai.based.fitness.gateway.jwt;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import reactor.core.publisher.Mono;
+
+/**
+ * Remembers tokens that were already verified, keyed by their SHA-256, until they expire. The SPA
+ * sends the same access token with every request, so only the first one pays for the signature
+ * check.
+ */
+public class CachingReactiveJwtDecoder implements ReactiveJwtDecoder {
+
+  private final ReactiveJwtDecoder delegate;
+  private final Cache<String, Jwt> verifiedTokens;
+
+  public CachingReactiveJwtDecoder(ReactiveJwtDecoder delegate, long maxSize) {
+    this.delegate = delegate;
+    this.verifiedTokens = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfter(Expiry.creating((String hash, Jwt jwt) -> timeToExpiry(jwt)))
+            .build();
+  }
+
+  @Override
+  public Mono<Jwt> decode(String token) {
+    String hash = sha256(token);
+    Jwt cached = verifiedTokens.getIfPresent(hash);
+    if (cached != null) {
+      return Mono.just(cached);
+    }
+    return delegate.decode(token)
+            .doOnNext(jwt -> {
+              // without an expiry we'd have no idea how long the token may be trusted
+              if (jwt.getExpiresAt() != null) {
+                verifiedTokens.put(hash, jwt);
+              }
+            });
+  }
+
+  private static Duration timeToExpiry(Jwt jwt) {
+    Duration remaining = Duration.between(Instant.now(), jwt.getExpiresAt());
+    return remaining.isNegative() ? Duration.ZERO : remaining;
+  }
+
+  private static String sha256(String token) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.US_ASCII)));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 not available", e);
+    }
+  }
+}
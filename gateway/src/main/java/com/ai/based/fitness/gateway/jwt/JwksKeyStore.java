@@ -0,0 +1,142 @@
+package com.ai.based.fitness.gateway.jwt;
+
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKMatcher;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jwt.SignedJWT;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SynchronousSink;
+
+/**
+ * In-memory copy of Keycloak's JWKS used to verify tokens, so that verification never waits on a
+ * blocking key fetch.
+ * <p>
+ * The keys are fetched before the gateway starts taking traffic and refreshed in the background
+ * every {@code refresh-interval}. A token signed with a key we don't know (Keycloak rotated its
+ * keys) triggers an early refresh, at most once per {@code min-refresh-interval}. When a fetch
+ * fails the last keys we got keep being used.
+ */
+@Slf4j
+public class JwksKeyStore implements SmartLifecycle {
+
+  private final WebClient webClient;
+  private final String jwkSetUri;
+  private final Duration refreshInterval;
+  private final Duration minRefreshInterval;
+  private final Duration fetchTimeout;
+
+  private volatile JWKSet keys = new JWKSet();
+  private volatile long lastRefreshNanos;
+  private Mono<JWKSet> inFlightRefresh;
+  private Disposable scheduledRefresh;
+
+  public JwksKeyStore(WebClient webClient, String jwkSetUri, Duration refreshInterval,
+          Duration minRefreshInterval, Duration fetchTimeout) {
+    this.webClient = webClient;
+    this.jwkSetUri = jwkSetUri;
+    this.refreshInterval = refreshInterval;
+    this.minRefreshInterval = minRefreshInterval;
+    this.fetchTimeout = fetchTimeout;
+  }
+
+  public Flux<JWK> getKeys(SignedJWT jwt) {
+    JWKSelector selector = new JWKSelector(JWKMatcher.forJWSHeader(jwt.getHeader()));
+    List<JWK> matched = selector.select(keys);
+    if (!matched.isEmpty()) {
+      return Flux.fromIterable(matched);
+    }
+    return refreshIfStale().flatMapIterable(selector::select);
+  }
+
+  public JWKSet currentKeys() {
+    return keys;
+  }
+
+  public Mono<JWKSet> refreshIfStale() {
+    if (lastRefreshNanos != 0
+            && System.nanoTime() - lastRefreshNanos < minRefreshInterval.toNanos()) {
+      return Mono.just(keys);
+    }
+    return refresh();
+  }
+
+  // concurrent callers share one fetch
+  public synchronized Mono<JWKSet> refresh() {
+    if (inFlightRefresh == null) {
+      lastRefreshNanos = System.nanoTime();
+      inFlightRefresh = fetch()
+              .doFinally(signal -> clearInFlightRefresh())
+              .cache();
+    }
+    return inFlightRefresh;
+  }
+
+  private synchronized void clearInFlightRefresh() {
+    inFlightRefresh = null;
+  }
+
+  private Mono<JWKSet> fetch() {
+    return webClient.get()
+            .uri(jwkSetUri)
+            .retrieve()
+            .bodyToMono(String.class)
+            .timeout(fetchTimeout)
+            .handle((String body, SynchronousSink<JWKSet> sink) -> {
+              try {
+                sink.next(JWKSet.parse(body));
+              } catch (ParseException e) {
+                sink.error(e);
+              }
+            })
+            .doOnNext(fetched -> {
+              keys = fetched;
+              log.debug("Fetched {} keys from {}", fetched.getKeys().size(), jwkSetUri);
+            })
+            .onErrorResume(e -> {
+              log.warn("Failed to fetch JWKS from {}, keeping the last known keys: {}",
+                      jwkSetUri, e.toString());
+              return Mono.just(keys);
+            });
+  }
+
+  @Override
+  public void start() {
+    try {
+      refresh().block(fetchTimeout.plusSeconds(1));
+    } catch (RuntimeException e) {
+      log.warn("JWKS prefetch from {} failed, keys will be loaded on demand", jwkSetUri);
+    }
+    scheduledRefresh = Flux.interval(refreshInterval, refreshInterval)
+            .onBackpressureDrop()
+            .concatMap(tick -> refresh())
+            .subscribe();
+  }
+
+  @Override
+  public void stop() {
+    if (scheduledRefresh != null) {
+      scheduledRefresh.dispose();
+      scheduledRefresh = null;
+    }
+  }
+
+  @Override
+  public boolean isRunning() {
+    return scheduledRefresh != null;
+  }
+
+  // start before the web server (phase Integer.MAX_VALUE - 1024) so the first requests find keys
+  @Override
+  public int getPhase() {
+    return 0;
+  }
+}
@@ -0,0 +1,36 @@
+package com.ai.based.fitness.gateway.jwt;
+
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.oauth2.jwt.NimbusReactiveJwtDecoder;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import org.springframework.web.reactive.function.client.WebClient;
+
+/**
+ * Replaces Spring Boot's jwk-set-uri decoder, which fetches keys lazily on the request path, with
+ * one backed by a prefetched {@link JwksKeyStore} and a cache of verified tokens.
+ */
+@Configuration
+public class JwtDecoderConfig {
+
+  @Bean
+  public JwksKeyStore jwksKeyStore(
+          @Value("${spring.security.oauth2.resourceserver.jwt.jwk-set-uri}") String jwkSetUri,
+          @Value("${gateway.jwks.refresh-interval:5m}") Duration refreshInterval,
+          @Value("${gateway.jwks.min-refresh-interval:30s}") Duration minRefreshInterval,
+          @Value("${gateway.jwks.fetch-timeout:5s}") Duration fetchTimeout) {
+//    plain client on purpose, the load-balanced builder would try to resolve keycloak via eureka
+    return new JwksKeyStore(WebClient.create(), jwkSetUri, refreshInterval, minRefreshInterval,
+            fetchTimeout);
+  }
+
+  @Bean
+  public ReactiveJwtDecoder jwtDecoder(JwksKeyStore jwksKeyStore,
+          @Value("${gateway.jwks.token-cache-size:100000}") long tokenCacheSize) {
+    return new CachingReactiveJwtDecoder(
+            NimbusReactiveJwtDecoder.withJwkSource(jwksKeyStore::getKeys).build(),
+            tokenCacheSize);
+  }
+}
@@ -0,0 +1,63 @@
+package com.ai.based.fitness.gateway.metrics;
+
+import static org.springframework.cloud.gateway.filter.ReactiveLoadBalancerClientFilter.LOAD_BALANCER_CLIENT_FILTER_ORDER;
+
+import com.ai.based.fitness.gateway.metrics.RequestTimings.Stage;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import reactor.core.publisher.Mono;
+
+/**
+ * Stage boundaries for {@link RequestTimings} that don't belong to one of our own filters:
+ * the end of Spring Security's chain and the Eureka/LoadBalancer lookup of a route.
+ */
+@Configuration
+public class GatewayTimingConfig {
+
+  @Bean
+  @Order(-99)
+  public WebFilter securityTimingFilter() {
+//    runs right after Spring Security's WebFilterChainProxy (-100), the JWT has been verified here
+    return (exchange, chain) -> {
+      RequestTimings.stop(exchange, Stage.SECURITY);
+      return chain.filter(exchange);
+    };
+  }
+
+  @Bean
+  public GlobalFilter loadBalancerStartTimingFilter() {
+    return new OrderedTimingFilter(LOAD_BALANCER_CLIENT_FILTER_ORDER - 1, (exchange, chain) -> {
+      RequestTimings.start(exchange, Stage.LOAD_BALANCER);
+      return chain.filter(exchange);
+    });
+  }
+
+  @Bean
+  public GlobalFilter loadBalancerEndTimingFilter() {
+    return new OrderedTimingFilter(LOAD_BALANCER_CLIENT_FILTER_ORDER + 1, (exchange, chain) -> {
+      RequestTimings.stop(exchange, Stage.LOAD_BALANCER);
+      RequestTimings.start(exchange, Stage.DOWNSTREAM);
+      return chain.filter(exchange);
+    });
+  }
+
+  private record OrderedTimingFilter(int order, GlobalFilter delegate)
+          implements GlobalFilter, Ordered {
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+      return delegate.filter(exchange, chain);
+    }
+
+    @Override
+    public int getOrder() {
+      return order;
+    }
+  }
+}
@@ -0,0 +1,80 @@
+package com.ai.based.fitness.gateway.metrics;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+import com.ai.based.fitness.gateway.metrics.RequestTimings.Stage;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * Starts the {@link RequestTimings} of a request and, once it's done, records every stage as
+ * {@code gateway.request.stage} tagged with stage and route id. Runs ahead of Spring Security's
+ * filter chain (order -100) so JWT verification is part of the measured time.
+ * <p>
+ * Sending {@code X-Debug-Timing: true} returns the breakdown in a {@code Server-Timing} header,
+ * as long as {@code gateway.timing.debug-header-enabled} is on.
+ */
+@Component
+@Order(-200)
+public class RequestTimingWebFilter implements WebFilter {
+
+  public static final String DEBUG_REQUEST_HEADER = "X-Debug-Timing";
+  public static final String SERVER_TIMING_HEADER = "Server-Timing";
+
+  private final MeterRegistry meterRegistry;
+  private final boolean debugHeaderEnabled;
+
+  public RequestTimingWebFilter(MeterRegistry meterRegistry,
+          @Value("${gateway.timing.debug-header-enabled:false}") boolean debugHeaderEnabled) {
+    this.meterRegistry = meterRegistry;
+    this.debugHeaderEnabled = debugHeaderEnabled;
+  }
+
+  @Override
+  public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+    RequestTimings timings = new RequestTimings();
+    exchange.getAttributes().put(RequestTimings.ATTRIBUTE, timings);
+    timings.start(Stage.SECURITY);
+
+    boolean debug = debugHeaderEnabled && "true".equalsIgnoreCase(
+            exchange.getRequest().getHeaders().getFirst(DEBUG_REQUEST_HEADER));
+    exchange.getResponse().beforeCommit(() -> {
+//      response headers are in, whatever is still running was spent waiting on the downstream
+      timings.stop(Stage.DOWNSTREAM);
+      if (debug) {
+        exchange.getResponse().getHeaders().set(SERVER_TIMING_HEADER, timings.toServerTiming());
+      }
+      return Mono.empty();
+    });
+
+    return chain.filter(exchange)
+            .doFinally(signal -> record(exchange, timings));
+  }
+
+  private void record(ServerWebExchange exchange, RequestTimings timings) {
+    timings.stopAll();
+    Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+    String routeId = route != null ? route.getId() : "none";
+
+    timings.forEachRecorded((stage, nanos) -> timer(stage.tagValue(), routeId)
+            .record(nanos, TimeUnit.NANOSECONDS));
+    timer("total", routeId).record(timings.totalNanos(), TimeUnit.NANOSECONDS);
+  }
+
+  private Timer timer(String stage, String routeId) {
+    return Timer.builder("gateway.request.stage")
+            .description("Time spent by gateway requests per stage")
+            .tag("stage", stage)
+            .tag("routeId", routeId)
+            .register(meterRegistry);
+  }
+}
@@ -0,0 +1,89 @@
+package com.ai.based.fitness.gateway.metrics;
+
+import java.util.Locale;
+import java.util.StringJoiner;
+import java.util.function.BiConsumer;
+import org.springframework.web.server.ServerWebExchange;
+
+/**
+ * Per-request stopwatch for the stages a request goes through in the gateway. It lives in the
+ * exchange attributes so every filter along the way can start or stop its stage.
+ */
+public class RequestTimings {
+
+  public static final String ATTRIBUTE = RequestTimings.class.getName();
+
+  public enum Stage {
+    SECURITY,
+    USER_SYNC,
+    LOAD_BALANCER,
+    DOWNSTREAM;
+
+    public String tagValue() {
+      return name().toLowerCase(Locale.ROOT).replace('_', '-');
+    }
+  }
+
+  private final long startNanos = System.nanoTime();
+  private final long[] stageStarts = new long[Stage.values().length];
+  private final long[] stageNanos = new long[Stage.values().length];
+  private final boolean[] running = new boolean[Stage.values().length];
+  private final boolean[] recorded = new boolean[Stage.values().length];
+
+  public static void start(ServerWebExchange exchange, Stage stage) {
+    RequestTimings timings = exchange.getAttribute(ATTRIBUTE);
+    if (timings != null) {
+      timings.start(stage);
+    }
+  }
+
+  public static void stop(ServerWebExchange exchange, Stage stage) {
+    RequestTimings timings = exchange.getAttribute(ATTRIBUTE);
+    if (timings != null) {
+      timings.stop(stage);
+    }
+  }
+
+  public synchronized void start(Stage stage) {
+    stageStarts[stage.ordinal()] = System.nanoTime();
+    running[stage.ordinal()] = true;
+  }
+
+  public synchronized void stop(Stage stage) {
+    if (running[stage.ordinal()]) {
+      stageNanos[stage.ordinal()] = System.nanoTime() - stageStarts[stage.ordinal()];
+      running[stage.ordinal()] = false;
+      recorded[stage.ordinal()] = true;
+    }
+  }
+
+  public synchronized void stopAll() {
+    for (Stage stage : Stage.values()) {
+      stop(stage);
+    }
+  }
+
+  public long totalNanos() {
+    return System.nanoTime() - startNanos;
+  }
+
+  public synchronized void forEachRecorded(BiConsumer<Stage, Long> consumer) {
+    for (Stage stage : Stage.values()) {
+      if (recorded[stage.ordinal()]) {
+        consumer.accept(stage, stageNanos[stage.ordinal()]);
+      }
+    }
+  }
+
+  // Server-Timing format so the breakdown shows up in the browser dev tools as well
+  public String toServerTiming() {
+    StringJoiner joiner = new StringJoiner(", ");
+    forEachRecorded((stage, nanos) -> joiner.add(serverTimingEntry(stage.tagValue(), nanos)));
+    joiner.add(serverTimingEntry("total", totalNanos()));
+    return joiner.toString();
+  }
+
+  private static String serverTimingEntry(String name, long nanos) {
+    return String.format(Locale.ROOT, "%s;dur=%.3f", name, nanos / 1_000_000.0);
+  }
+}
@@ -0,0 +1,121 @@
+package com.ai.based.fitness.gateway.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.validation.constraints.Min;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.Data;
+import lombok.experimental.Accessors;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.ratelimit.AbstractRateLimiter;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
+import reactor.core.publisher.Mono;
+
+/**
+ * Token bucket rate limiter that keeps its state in the gateway process instead of Redis.
+ * <p>
+ * Each bucket is a single {@code long} holding the theoretical arrival time of the next request
+ * (GCRA), updated with a CAS loop, so there is no lock and no per-request allocation besides the
+ * response. Buckets that haven't been touched for {@code idle-timeout} are evicted; by then they
+ * are full again anyway. Configured per route in api-gateway.yml:
+ * <pre>
+ * - name: RequestRateLimiter
+ *   args:
+ *     rate-limiter: "#{@inMemoryRateLimiter}"
+ *     key-resolver: "#{@userKeyResolver}"
+ *     in-memory-rate-limiter.replenish-rate: 10
+ *     in-memory-rate-limiter.burst-capacity: 20
+ * </pre>
+ */
+@Component
+public class InMemoryRateLimiter extends AbstractRateLimiter<InMemoryRateLimiter.Config> {
+
+  public static final String CONFIGURATION_PROPERTY_NAME = "in-memory-rate-limiter";
+
+  public static final String REMAINING_HEADER = "X-RateLimit-Remaining";
+  public static final String REPLENISH_RATE_HEADER = "X-RateLimit-Replenish-Rate";
+  public static final String BURST_CAPACITY_HEADER = "X-RateLimit-Burst-Capacity";
+  public static final String REQUESTED_TOKENS_HEADER = "X-RateLimit-Requested-Tokens";
+
+  private static final long NANOS_PER_SECOND = Duration.ofSeconds(1).toNanos();
+
+  private final Config defaultConfig;
+  private final Duration idleTimeout;
+  private final long maxKeysPerRoute;
+  private final Map<String, Cache<String, AtomicLong>> buckets = new ConcurrentHashMap<>();
+
+  public InMemoryRateLimiter(ConfigurationService configurationService,
+          @Value("${gateway.rate-limit.replenish-rate:10}") int replenishRate,
+          @Value("${gateway.rate-limit.burst-capacity:20}") int burstCapacity,
+          @Value("${gateway.rate-limit.idle-timeout:10m}") Duration idleTimeout,
+          @Value("${gateway.rate-limit.max-keys-per-route:1000000}") long maxKeysPerRoute) {
+    super(Config.class, CONFIGURATION_PROPERTY_NAME, configurationService);
+    this.defaultConfig = new Config()
+            .setReplenishRate(replenishRate)
+            .setBurstCapacity(burstCapacity);
+    this.idleTimeout = idleTimeout;
+    this.maxKeysPerRoute = maxKeysPerRoute;
+  }
+
+  @Override
+  public Mono<Response> isAllowed(String routeId, String id) {
+    Config config = getConfig().getOrDefault(routeId, defaultConfig);
+    long remaining = tryAcquire(routeId, id, config, System.nanoTime());
+    return Mono.just(new Response(remaining >= 0, Map.of(
+            REMAINING_HEADER, String.valueOf(Math.max(remaining, 0)),
+            REPLENISH_RATE_HEADER, String.valueOf(config.getReplenishRate()),
+            BURST_CAPACITY_HEADER, String.valueOf(config.getBurstCapacity()),
+            REQUESTED_TOKENS_HEADER, String.valueOf(config.getRequestedTokens()))));
+  }
+
+  /**
+   * Returns the tokens left after taking {@code requestedTokens} from the bucket, or -1 if the
+   * bucket doesn't hold enough tokens, in which case nothing is taken.
+   */
+  long tryAcquire(String routeId, String id, Config config, long now) {
+    AtomicLong bucket = buckets.computeIfAbsent(routeId, route -> newRouteBuckets())
+            .get(id, key -> new AtomicLong(Long.MIN_VALUE));
+
+    long emissionInterval = NANOS_PER_SECOND / config.getReplenishRate();
+    long tolerance = emissionInterval * config.getBurstCapacity();
+    long increment = emissionInterval * config.getRequestedTokens();
+
+    while (true) {
+      long theoreticalArrival = bucket.get();
+      long newTheoreticalArrival = Math.max(theoreticalArrival, now) + increment;
+      if (newTheoreticalArrival - now > tolerance) {
+        return -1;
+      }
+      if (bucket.compareAndSet(theoreticalArrival, newTheoreticalArrival)) {
+        return (tolerance - (newTheoreticalArrival - now)) / emissionInterval;
+      }
+    }
+  }
+
+  private Cache<String, AtomicLong> newRouteBuckets() {
+    return Caffeine.newBuilder()
+            .expireAfterAccess(idleTimeout)
+            .maximumSize(maxKeysPerRoute)
+            .build();
+  }
+
+  @Data
+  @Validated
+  @Accessors(chain = true)
+  public static class Config {
+
+    @Min(1)
+    private int replenishRate;
+
+    @Min(1)
+    private int burstCapacity = 1;
+
+    @Min(1)
+    private int requestedTokens = 1;
+  }
+}
@@ -0,0 +1,23 @@
+package com.ai.based.fitness.gateway.ratelimit;
+
+import java.security.Principal;
+import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * Rate limit key for a request: the JWT {@code sub} of the authenticated user, falling back to
+ * the {@code X-User-ID} header. The sub comes first since it can't be chosen freely by the client.
+ */
+@Component
+public class UserKeyResolver implements KeyResolver {
+
+  @Override
+  public Mono<String> resolve(ServerWebExchange exchange) {
+    return exchange.getPrincipal()
+            .map(Principal::getName)
+            .switchIfEmpty(Mono.justOrEmpty(
+                    exchange.getRequest().getHeaders().getFirst("X-User-ID")));
+  }
+}
@@ -0,0 +1,57 @@
+package com.ai.based.fitness.gateway.user;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+/**
+ * Provisions keycloak users in USER-SERVICE in the background.
+ * <p>
+ * The gateway forwards the request right away, the first requests of a new user just kick off the
+ * sync. A SPA usually fires several requests in parallel after login, so at most one
+ * validate/register call per keycloak id is in flight at any time and the others piggyback on it.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class KeycloakUserSyncService {
+
+  private final UserService userService;
+  private final UserValidationCache userValidationCache;
+
+  private final Map<String, Mono<Void>> inFlight = new ConcurrentHashMap<>();
+
+  public void syncUser(String userId, Jwt jwt) {
+    if (userValidationCache.isKnown(userId) || inFlight.containsKey(userId)) {
+      return;
+    }
+
+    Mono<Void> sync = userValidationCache.validateUser(userId)
+            .filter(exists -> !exists)
+            .flatMap(notFound -> userService.registerUser(getUserDetails(jwt)))
+            .doOnNext(user -> userValidationCache.markRegistered(userId))
+            .doOnError(e -> log.warn("Failed to sync user {}: {}", userId, e.getMessage()))
+            .onErrorResume(e -> Mono.empty())
+            .then();
+
+//    only the caller that wins the race subscribes, the rest see the in-flight sync and move on
+    if (inFlight.putIfAbsent(userId, sync) == null) {
+      sync.doFinally(signal -> inFlight.remove(userId, sync))
+              .subscribe();
+    }
+  }
+
+  private RegisterRequest getUserDetails(Jwt jwt) {
+    RegisterRequest registerRequest = new RegisterRequest();
+    registerRequest.setEmail(jwt.getClaimAsString("email"));
+    registerRequest.setKeycloakId(jwt.getSubject());
+    registerRequest.setPassword("dummy@123123");
+    registerRequest.setFirstName(jwt.getClaimAsString("given_name"));
+    registerRequest.setLastName(jwt.getClaimAsString("family_name"));
+    return registerRequest;
+  }
+}
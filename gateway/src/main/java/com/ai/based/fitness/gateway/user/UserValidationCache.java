@@ -0,0 +1,62 @@
+package com.ai.based.fitness.gateway.user;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Keeps the result of USER-SERVICE validation calls in memory so that steady-state requests don't
+ * pay for an extra hop on every call.
+ * <p>
+ * Existing users are kept for {@code positive-ttl}, unknown users only for the much shorter
+ * {@code negative-ttl} so that a freshly registered user is picked up quickly. Concurrent lookups
+ * for the same id share one in-flight call, and failed calls are never cached.
+ */
+@Component
+@Slf4j
+public class UserValidationCache {
+
+  private final UserService userService;
+  private final AsyncCache<String, Boolean> cache;
+
+  public UserValidationCache(UserService userService, MeterRegistry meterRegistry,
+          @Value("${gateway.user-cache.max-size:100000}") long maxSize,
+          @Value("${gateway.user-cache.positive-ttl:30m}") Duration positiveTtl,
+          @Value("${gateway.user-cache.negative-ttl:5s}") Duration negativeTtl) {
+    this.userService = userService;
+    this.cache = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfter(Expiry.creating((String userId, Boolean exists) ->
+                    exists ? positiveTtl : negativeTtl))
+            .recordStats()
+            .buildAsync();
+    CaffeineCacheMetrics.monitor(meterRegistry, cache, "gateway.user.validation",
+            Collections.emptyList());
+  }
+
+  public Mono<Boolean> validateUser(String userId) {
+    // cancelling one caller must not cancel the future other callers are waiting on.
+    return Mono.fromFuture(() -> cache.get(userId, (id, executor) ->
+            userService.validateUser(id).toFuture()), true);
+  }
+
+  public boolean isKnown(String userId) {
+    CompletableFuture<Boolean> cached = cache.getIfPresent(userId);
+    return cached != null && cached.isDone() && !cached.isCompletedExceptionally()
+            && Boolean.TRUE.equals(cached.join());
+  }
+
+  // called once USER-SERVICE has confirmed the registration, replaces a cached negative answer.
+  public void markRegistered(String userId) {
+    cache.put(userId, CompletableFuture.completedFuture(Boolean.TRUE));
+  }
+}
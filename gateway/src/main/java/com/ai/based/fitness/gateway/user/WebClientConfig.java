@@ -1,11 +1,17 @@
 package com.ai.based.fitness.gateway.user;
 
+import com.ai.based.fitness.common.http.DownstreamHttpClientProperties;
+import com.ai.based.fitness.common.http.DownstreamHttpClients;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cloud.client.loadbalancer.LoadBalanced;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
 import org.springframework.web.reactive.function.client.WebClient;
 
 @Configuration
+@EnableConfigurationProperties(DownstreamHttpClientProperties.class)
+@Import(DownstreamHttpClients.class)
 public class WebClientConfig {
 
   @Bean
@@ -15,11 +21,32 @@ public class WebClientConfig {
     return WebClient.builder();
   }
 
+  // each client gets its own pool, clone() keeps the load balancer filter of the shared builder
   @Bean
-  public WebClient userServiceWebClient(WebClient.Builder webClientBuilder) {
-    return webClientBuilder
+  public WebClient userServiceWebClient(WebClient.Builder webClientBuilder,
+          DownstreamHttpClients downstreamHttpClients) {
+    return webClientBuilder.clone()
+            .clientConnector(downstreamHttpClients.connector("USER-SERVICE"))
             .baseUrl("http://USER-SERVICE")
             .build();
   }
 
+  @Bean
+  public WebClient activityServiceWebClient(WebClient.Builder webClientBuilder,
+          DownstreamHttpClients downstreamHttpClients) {
+    return webClientBuilder.clone()
+            .clientConnector(downstreamHttpClients.connector("ACTIVITY-SERVICE"))
+            .baseUrl("http://ACTIVITY-SERVICE")
+            .build();
+  }
+
+  @Bean
+  public WebClient aiServiceWebClient(WebClient.Builder webClientBuilder,
+          DownstreamHttpClients downstreamHttpClients) {
+    return webClientBuilder.clone()
+            .clientConnector(downstreamHttpClients.connector("AI-SERVICE"))
+            .baseUrl("http://AI-SERVICE")
+            .build();
+  }
+
 }
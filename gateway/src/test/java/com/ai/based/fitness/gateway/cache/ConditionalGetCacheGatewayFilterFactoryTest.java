@@ -0,0 +1,169 @@
+package com.ai.based.fitness.gateway.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Flux;
+
+class ConditionalGetCacheGatewayFilterFactoryTest {
+
+  private static final String BODY = "[{\"id\":\"a\"},{\"id\":\"b\"}]";
+
+  private final DataBufferFactory bufferFactory = DefaultDataBufferFactory.sharedInstance;
+  private final GatewayFilter filter = new ConditionalGetCacheGatewayFilterFactory(
+          new SimpleMeterRegistry(), 1 << 20, 1024, Duration.ofMinutes(1)).apply(new Object());
+  private final AtomicInteger upstreamCalls = new AtomicInteger();
+
+  @Test
+  void replaysHeadersOfTheCachedResponse() {
+    Consumer<HttpHeaders> headers = h -> h.add("X-Next-Cursor", "next-page");
+    MockServerWebExchange first = get("gzip");
+    filter.filter(first, upstream(BODY, true, headers)).block();
+    assertNull(first.getResponse().getHeaders().getETag());
+
+    MockServerWebExchange second = get("gzip");
+    filter.filter(second, upstream(BODY, true, headers)).block();
+
+    assertEquals(1, upstreamCalls.get());
+    assertEquals(BODY, second.getResponse().getBodyAsString().block());
+    HttpHeaders replayed = second.getResponse().getHeaders();
+    assertEquals("next-page", replayed.getFirst("X-Next-Cursor"));
+    assertEquals(MediaType.APPLICATION_JSON, replayed.getContentType());
+    assertEquals(BODY.length(), replayed.getContentLength());
+    assertNotNull(replayed.getETag());
+
+    MockServerWebExchange revalidation = MockServerWebExchange.from(
+            MockServerHttpRequest.get("/api/activities")
+                    .header("X-User-ID", "user-1")
+                    .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                    .ifNoneMatch(replayed.getETag()));
+    filter.filter(revalidation, upstream(BODY, true, headers)).block();
+    assertEquals(HttpStatus.NOT_MODIFIED, revalidation.getResponse().getStatusCode());
+  }
+
+  @Test
+  void acceptEncodingIsPartOfTheKey() {
+    filter.filter(get("gzip"), upstream(BODY, true, h -> {
+    })).block();
+    filter.filter(get(null), upstream(BODY, true, h -> {
+    })).block();
+
+    assertEquals(2, upstreamCalls.get());
+  }
+
+  @Test
+  void doesNotCacheEncodedAttachmentsUnsizedOrLargeResponses() {
+    String large = "x".repeat(2048);
+    for (int i = 0; i < 2; i++) {
+      filter.filter(get(null), upstream(BODY, true,
+              h -> h.set(HttpHeaders.CONTENT_ENCODING, "gzip"))).block();
+      filter.filter(getPath("/api/activities/export"), upstream(BODY, true,
+              h -> h.set(HttpHeaders.CONTENT_DISPOSITION, "attachment"))).block();
+      filter.filter(getPath("/api/activities/unsized"), upstream(BODY, false, h -> {
+      })).block();
+      MockServerWebExchange largeExchange = getPath("/api/activities/large");
+      filter.filter(largeExchange, upstream(large, true, h -> {
+      })).block();
+      assertEquals(large, largeExchange.getResponse().getBodyAsString().block());
+    }
+
+    assertEquals(8, upstreamCalls.get());
+  }
+
+  @Test
+  void successfulWriteDropsOnlyThatUsersResponses() {
+    filter.filter(get(null), upstream(BODY, true, h -> {
+    })).block();
+    filter.filter(getAs("user-2"), upstream(BODY, true, h -> {
+    })).block();
+
+    filter.filter(post(), respond(HttpStatus.OK)).block();
+    filter.filter(get(null), upstream(BODY, true, h -> {
+    })).block();
+    filter.filter(getAs("user-2"), upstream(BODY, true, h -> {
+    })).block();
+
+    assertEquals(3, upstreamCalls.get());
+  }
+
+  @Test
+  void rejectedWriteKeepsTheCache() {
+    filter.filter(get(null), upstream(BODY, true, h -> {
+    })).block();
+
+    filter.filter(post(), respond(HttpStatus.TOO_MANY_REQUESTS)).block();
+    filter.filter(post(), respond(HttpStatus.BAD_REQUEST)).block();
+    filter.filter(get(null), upstream(BODY, true, h -> {
+    })).block();
+
+    assertEquals(1, upstreamCalls.get());
+  }
+
+  private static MockServerWebExchange post() {
+    return MockServerWebExchange.from(MockServerHttpRequest.post("/api/activities")
+            .header("X-User-ID", "user-1"));
+  }
+
+  private static MockServerWebExchange getAs(String userId) {
+    return MockServerWebExchange.from(MockServerHttpRequest.get("/api/activities")
+            .header("X-User-ID", userId));
+  }
+
+  private static GatewayFilterChain respond(HttpStatus status) {
+    return exchange -> {
+      exchange.getResponse().setStatusCode(status);
+      return exchange.getResponse().setComplete();
+    };
+  }
+
+  private static MockServerWebExchange get(String acceptEncoding) {
+    MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.get("/api/activities")
+            .header("X-User-ID", "user-1");
+    if (acceptEncoding != null) {
+      request.header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+    }
+    return MockServerWebExchange.from(request);
+  }
+
+  private static MockServerWebExchange getPath(String path) {
+    return MockServerWebExchange.from(MockServerHttpRequest.get(path).header("X-User-ID", "user-1"));
+  }
+
+  //  writes the body in two chunks, like a proxied response
+  private GatewayFilterChain upstream(String body, boolean withLength,
+          Consumer<HttpHeaders> headers) {
+    return exchange -> {
+      upstreamCalls.incrementAndGet();
+      byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+      ServerHttpResponse response = exchange.getResponse();
+      response.setStatusCode(HttpStatus.OK);
+      response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+      if (withLength) {
+        response.getHeaders().setContentLength(bytes.length);
+      }
+      headers.accept(response.getHeaders());
+      int half = bytes.length / 2;
+      return response.writeWith(Flux.just(
+              bufferFactory.wrap(Arrays.copyOfRange(bytes, 0, half)),
+              bufferFactory.wrap(Arrays.copyOfRange(bytes, half, bytes.length))));
+    };
+  }
+}
@@ -0,0 +1,79 @@
+package com.ai.based.fitness.gateway.dashboard;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+class DashboardServiceTest {
+
+  private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+  private final AtomicReference<String> activitiesQuery = new AtomicReference<>();
+  private final AtomicReference<String> recommendationsQuery = new AtomicReference<>();
+  private DisposableServer activityService;
+  private DisposableServer aiService;
+
+  @AfterEach
+  void tearDown() {
+    activityService.disposeNow();
+    aiService.disposeNow();
+  }
+
+  @Test
+  void asksForALimitedPageAndPassesOnTheNextCursor() {
+    DashboardResponse dashboard = dashboard("cursor-2").getDashboard("user-1").block(TIMEOUT);
+
+    assertEquals("/api/activities?limit=2", activitiesQuery.get());
+    assertEquals("/api/recommendations/user/user-1?limit=2", recommendationsQuery.get());
+    assertEquals(2, dashboard.getActivities().size());
+    assertEquals("a2", dashboard.getActivities().get(1).getActivity().path("id").asText());
+    assertEquals("r2",
+            dashboard.getActivities().get(1).getRecommendation().path("id").asText());
+    assertEquals("cursor-2", dashboard.getNextActivitiesCursor());
+    assertFalse(dashboard.isPartial());
+  }
+
+  @Test
+  void lastPageHasNoCursor() {
+    DashboardResponse dashboard = dashboard(null).getDashboard("user-1").block(TIMEOUT);
+
+    assertEquals(2, dashboard.getActivities().size());
+    assertNull(dashboard.getNextActivitiesCursor());
+  }
+
+  private DashboardService dashboard(String nextCursor) {
+    activityService = HttpServer.create()
+            .port(0)
+            .route(routes -> routes.get("/api/activities", (request, response) -> {
+              activitiesQuery.set(request.uri());
+              response.header("Content-Type", "application/json");
+              if (nextCursor != null) {
+                response.header("X-Next-Cursor", nextCursor);
+              }
+              return response.sendString(Mono.just("[{\"id\":\"a1\"},{\"id\":\"a2\"}]"));
+            }))
+            .bindNow();
+    aiService = HttpServer.create()
+            .port(0)
+            .route(routes -> routes.get("/api/recommendations/user/{userId}",
+                    (request, response) -> {
+                      recommendationsQuery.set(request.uri());
+                      return response.header("Content-Type", "application/json")
+                              .sendString(Mono.just("[{\"id\":\"r2\",\"activityId\":\"a2\"}]"));
+                    }))
+            .bindNow();
+    return new DashboardService(
+            WebClient.create("http://localhost:" + activityService.port()),
+            WebClient.create("http://localhost:" + aiService.port()),
+            2, TIMEOUT, TIMEOUT);
+  }
+}
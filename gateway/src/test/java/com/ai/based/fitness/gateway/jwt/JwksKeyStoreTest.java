@@ -0,0 +1,134 @@
+package com.ai.based.fitness.gateway.jwt;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.sun.net.httpserver.HttpServer;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.NimbusReactiveJwtDecoder;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import org.springframework.web.reactive.function.client.WebClient;
+
+/**
+ * Runs the decoder against a local stub of Keycloak's certs endpoint.
+ */
+class JwksKeyStoreTest {
+
+  private HttpServer server;
+  private final AtomicInteger fetches = new AtomicInteger();
+  private volatile String jwksBody;
+  private volatile int jwksStatus = 200;
+
+  private JwksKeyStore keyStore;
+  private ReactiveJwtDecoder decoder;
+  private RSAKey firstKey;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    firstKey = new RSAKeyGenerator(2048).keyID("first").generate();
+    jwksBody = new JWKSet(firstKey.toPublicJWK()).toString();
+
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext("/certs", exchange -> {
+      fetches.incrementAndGet();
+      byte[] body = jwksBody.getBytes(StandardCharsets.UTF_8);
+      exchange.getResponseHeaders().add("Content-Type", "application/json");
+      exchange.sendResponseHeaders(jwksStatus, body.length);
+      try (OutputStream out = exchange.getResponseBody()) {
+        out.write(body);
+      }
+    });
+    server.start();
+
+    keyStore = new JwksKeyStore(WebClient.create(),
+            "http://localhost:" + server.getAddress().getPort() + "/certs",
+            Duration.ofHours(1), Duration.ZERO, Duration.ofSeconds(2));
+    decoder = new CachingReactiveJwtDecoder(
+            NimbusReactiveJwtDecoder.withJwkSource(keyStore::getKeys).build(), 1000);
+  }
+
+  @AfterEach
+  void tearDown() {
+    keyStore.stop();
+    server.stop(0);
+  }
+
+  @Test
+  void prefetchesKeysOnStartAndVerifiesWithoutFetching() throws Exception {
+    keyStore.start();
+    assertEquals(1, fetches.get());
+
+    Jwt jwt = decoder.decode(token(firstKey, "user-1")).block();
+
+    assertEquals("user-1", jwt.getSubject());
+    assertEquals(1, fetches.get());
+  }
+
+  @Test
+  void returnsCachedJwtForTheSameToken() throws Exception {
+    keyStore.start();
+    String token = token(firstKey, "user-1");
+
+    Jwt first = decoder.decode(token).block();
+    Jwt second = decoder.decode(token).block();
+
+    assertSame(first, second);
+  }
+
+  @Test
+  void keepsLastKnownKeysWhenRefreshFails() throws Exception {
+    keyStore.start();
+    jwksStatus = 500;
+
+    keyStore.refresh().block();
+
+    assertEquals(2, fetches.get());
+    assertEquals(1, keyStore.currentKeys().getKeys().size());
+    assertEquals("user-2", decoder.decode(token(firstKey, "user-2")).block().getSubject());
+  }
+
+  @Test
+  void refreshesWhenTokenIsSignedWithUnknownKey() throws Exception {
+    keyStore.start();
+    RSAKey rotatedKey = new RSAKeyGenerator(2048).keyID("rotated").generate();
+    jwksBody = new JWKSet(List.of(firstKey.toPublicJWK(), rotatedKey.toPublicJWK()))
+            .toString();
+
+    Jwt jwt = decoder.decode(token(rotatedKey, "user-3")).block();
+
+    assertEquals("user-3", jwt.getSubject());
+    assertEquals(2, fetches.get());
+  }
+
+  private static String token(RSAKey key, String subject) throws JOSEException {
+    JWTClaimsSet claims = new JWTClaimsSet.Builder()
+            .subject(subject)
+            .issueTime(new Date())
+            .expirationTime(Date.from(Instant.now().plusSeconds(300)))
+            .build();
+    SignedJWT jwt = new SignedJWT(
+            new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(key.getKeyID()).build(), claims);
+    jwt.sign(new RSASSASigner(key));
+    return jwt.serialize();
+  }
+}
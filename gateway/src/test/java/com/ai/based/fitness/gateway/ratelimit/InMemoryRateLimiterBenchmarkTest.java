@@ -0,0 +1,60 @@
+package com.ai.based.fitness.gateway.ratelimit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Rough microbenchmark for the per-request cost of {@link InMemoryRateLimiter}, the cost of a
+ * check should not grow with the number of distinct keys the gateway has seen. Runs with
+ * {@code mvn test -Pbenchmarks}.
+ */
+@Tag("benchmark")
+@Slf4j
+class InMemoryRateLimiterBenchmarkTest {
+
+  private static final int OPERATIONS = 2_000_000;
+
+  private final InMemoryRateLimiter.Config config = new InMemoryRateLimiter.Config()
+          .setReplenishRate(10)
+          .setBurstCapacity(20);
+
+  @Test
+  void costPerCheckWithKeyCardinality() {
+    double fewKeys = nanosPerCheck(1_000);
+    double manyKeys = nanosPerCheck(1_000_000);
+    log.info("InMemoryRateLimiter: 1k keys {} ns/check, 1M keys {} ns/check",
+            String.format("%.1f", fewKeys), String.format("%.1f", manyKeys));
+  }
+
+  private double nanosPerCheck(int keyCount) {
+    InMemoryRateLimiter limiter = new InMemoryRateLimiter(null, 10, 20, Duration.ofMinutes(10),
+            2_000_000);
+    String[] keys = new String[keyCount];
+    for (int i = 0; i < keyCount; i++) {
+      keys[i] = "user-" + i;
+      limiter.tryAcquire("route", keys[i], config, 0);
+    }
+
+    // warm up, then measure
+    run(limiter, keys, OPERATIONS / 4);
+    long start = System.nanoTime();
+    long allowed = run(limiter, keys, OPERATIONS);
+    long elapsed = System.nanoTime() - start;
+    assertTrue(allowed > 0);
+    return (double) elapsed / OPERATIONS;
+  }
+
+  private long run(InMemoryRateLimiter limiter, String[] keys, int operations) {
+    long allowed = 0;
+    for (int i = 0; i < operations; i++) {
+      if (limiter.tryAcquire("route", keys[i % keys.length], config, System.nanoTime()) >= 0) {
+        allowed++;
+      }
+    }
+    return allowed;
+  }
+}
@@ -0,0 +1,62 @@
+package com.ai.based.fitness.gateway.ratelimit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class InMemoryRateLimiterTest {
+
+  private final InMemoryRateLimiter.Config config = new InMemoryRateLimiter.Config()
+          .setReplenishRate(10)
+          .setBurstCapacity(20);
+
+  @Test
+  void deniesOnceBurstIsUsedAndRefillsOverTime() {
+    InMemoryRateLimiter limiter = newLimiter();
+    long now = 0;
+    for (int i = 0; i < 20; i++) {
+      assertTrue(limiter.tryAcquire("route", "user", config, now) >= 0);
+    }
+    assertEquals(-1, limiter.tryAcquire("route", "user", config, now));
+    // 10 tokens per second -> one token every 100ms
+    assertEquals(0, limiter.tryAcquire("route", "user", config, now + 100_000_000));
+    assertEquals(19, limiter.tryAcquire("route", "other-user", config, now));
+  }
+
+  @Test
+  void keepsRoutesApart() {
+    InMemoryRateLimiter limiter = newLimiter();
+    for (int i = 0; i < 20; i++) {
+      limiter.tryAcquire("activity-service", "user", config, 0);
+    }
+
+    assertEquals(-1, limiter.tryAcquire("activity-service", "user", config, 0));
+    assertEquals(19, limiter.tryAcquire("ai-service", "user", config, 0));
+  }
+
+  @Test
+  void concurrentRequestsNeverGetMoreThanTheBurst() throws Exception {
+    InMemoryRateLimiter limiter = newLimiter();
+    AtomicInteger allowed = new AtomicInteger();
+    try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+      for (int i = 0; i < 1_000; i++) {
+        executor.execute(() -> {
+          if (limiter.tryAcquire("route", "user", config, 0) >= 0) {
+            allowed.incrementAndGet();
+          }
+        });
+      }
+    }
+
+    assertEquals(20, allowed.get());
+  }
+
+  private InMemoryRateLimiter newLimiter() {
+    return new InMemoryRateLimiter(null, 10, 20, Duration.ofMinutes(10), 1_000);
+  }
+}
@@ -1,9 +1,12 @@
 package com.ai.based.fitness.userservice;
 
+import com.ai.based.fitness.common.threads.VirtualThreadPinningMonitor;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Import;
 
 @SpringBootApplication
+@Import(VirtualThreadPinningMonitor.class)
 public class UserServiceApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,26 @@
+package com.ai.based.fitness.userservice.config;
+
+import org.springframework.amqp.core.DirectExchange;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class RabbitMqConfig {
+
+  @Value("${rabbitmq.exchange.name}")
+  private String exchange;
+
+  @Bean
+  public DirectExchange fitnessExchange() {
+//    same exchange the activity events go through, services bind their own queues to it
+    return new DirectExchange(exchange);
+  }
+
+  @Bean
+  public MessageConverter jsonMessageConverter() {
+    return new Jackson2JsonMessageConverter();
+  }
+}
@@ -0,0 +1,27 @@
+package com.ai.based.fitness.userservice.controller;
+
+import com.ai.based.fitness.userservice.service.UserService;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Endpoints for other services only. The gateway routes /api/users/** alone, so these are not
+ * reachable from outside.
+ */
+@RestController
+@RequestMapping("/internal/users")
+@RequiredArgsConstructor
+public class InternalUserController {
+
+  private final UserService userService;
+
+  //  snapshot other services use to seed their copy of the known users
+  @GetMapping("/keycloak-ids")
+  public ResponseEntity<List<String>> getKeycloakIds() {
+    return ResponseEntity.ok(userService.getAllKeycloakIds());
+  }
+}
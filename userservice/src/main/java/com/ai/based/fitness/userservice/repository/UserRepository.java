@@ -3,7 +3,9 @@ package com.ai.based.fitness.userservice.repository;
 import com.ai.based.fitness.userservice.model.User;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
+import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 @Repository
@@ -16,4 +18,7 @@ public interface UserRepository extends JpaRepository<User, String> {
 
   User findByEmail(
           @NotBlank(message = "Email is required.") @Email(message = "Invalid email format.") String email);
+
+  @Query("select u.keycloakId from User u where u.keycloakId is not null")
+  List<String> findAllKeycloakIds();
 }
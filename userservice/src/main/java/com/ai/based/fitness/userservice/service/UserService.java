@@ -1,12 +1,16 @@
 package com.ai.based.fitness.userservice.service;
 
 import com.ai.based.fitness.userservice.dto.RegisterRequest;
+import com.ai.based.fitness.userservice.dto.UserRegisteredEvent;
 import com.ai.based.fitness.userservice.dto.UserResponse;
 import com.ai.based.fitness.userservice.model.User;
 import com.ai.based.fitness.userservice.repository.UserRepository;
 import jakarta.validation.Valid;
+import java.util.List;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 @RequiredArgsConstructor
@@ -15,6 +19,13 @@ import org.springframework.stereotype.Service;
 public class UserService {
 
   private final UserRepository repository;
+  private final RabbitTemplate rabbitTemplate;
+
+  @Value("${rabbitmq.exchange.name}")
+  private String exchange;
+
+  @Value("${rabbitmq.user-registered.routing-key}")
+  private String userRegisteredRoutingKey;
 
   public UserResponse register(@Valid RegisterRequest request) {
     if (repository.existsByEmail(request.getEmail())) {
@@ -40,6 +51,7 @@ public class UserService {
     user.setKeycloakId(request.getKeycloakId());
 
     User savedUser = repository.save(user);
+    publishUserRegistered(savedUser);
     UserResponse userResponse = new UserResponse();
     userResponse.setId(savedUser.getId());
     userResponse.setPassword(savedUser.getPassword());
@@ -52,6 +64,23 @@ public class UserService {
     return userResponse;
   }
 
+//  lets other services keep their own copy of the known users instead of calling validate
+  private void publishUserRegistered(User user) {
+    if (user.getKeycloakId() == null) {
+      return;
+    }
+    try {
+      rabbitTemplate.convertAndSend(exchange, userRegisteredRoutingKey,
+              new UserRegisteredEvent(user.getKeycloakId()));
+    } catch (Exception e) {
+      log.error("Failed to publish user registered event to RabbitMQ: ", e);
+    }
+  }
+
+  public List<String> getAllKeycloakIds() {
+    return repository.findAllKeycloakIds();
+  }
+
   public UserResponse getUserProfile(String userId) {
     User user = repository.findById(userId)
             .orElseThrow(() -> new RuntimeException("User not found!"));